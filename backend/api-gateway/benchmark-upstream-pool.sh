@@ -0,0 +1,33 @@
+#!/bin/bash
+# Mede o reaproveitamento de conexões do gateway com os microsserviços.
+# Dispara carga concorrente numa rota e compara o total de requisições com o
+# número de conexões alocadas no pool (GET /actuator/upstream-pools).
+#
+# Uso: ./benchmark-upstream-pool.sh [url] [requisicoes] [concorrencia]
+# Requer: ab (apache2-utils), curl e jq. Defina TOKEN com um JWT válido.
+
+GATEWAY=${GATEWAY:-http://localhost:8000}
+URL=${1:-$GATEWAY/api/orders?page=0&size=10}
+REQUESTS=${2:-20000}
+CONCURRENCY=${3:-100}
+
+if [ -z "$TOKEN" ]; then
+    echo "❌ Defina a variável TOKEN com um JWT válido."
+    exit 1
+fi
+
+echo "📊 Pools antes da carga:"
+curl -s "$GATEWAY/actuator/upstream-pools" | jq .
+
+echo "🔥 Enviando $REQUESTS requisições com concorrência $CONCURRENCY para $URL ..."
+ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" "$URL" \
+    | grep -E "Requests per second|Time per request|Failed requests|Non-2xx|50%|99%"
+
+echo "📊 Pools depois da carga:"
+POOLS=$(curl -s "$GATEWAY/actuator/upstream-pools")
+echo "$POOLS" | jq .
+
+ALLOCATED=$(echo "$POOLS" | jq '[.pools[].allocated] | add')
+if [ -n "$ALLOCATED" ] && [ "$ALLOCATED" -gt 0 ]; then
+    echo "♻️  Requisições por conexão alocada: $((REQUESTS / ALLOCATED))"
+fi
@@ -0,0 +1,112 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros dos bulkheads (semáforos) por rota. Com per-role ativo, os papéis listados
+ * em "roles" (claim role, enviado no header X-User-Role) têm um bulkhead próprio dentro
+ * de cada rota, com os limites definidos ali; os demais papéis usam o bulkhead da rota.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+    private boolean perRole = false;
+    private Settings defaults = new Settings();
+    private Map<String, Settings> routes = new HashMap<>();
+    private Map<String, Settings> roles = new HashMap<>();
+
+    public Settings forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    public Settings forRole(String routeId, String role) {
+        return roles.getOrDefault(role, forRoute(routeId));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isPerRole() {
+        return perRole;
+    }
+
+    public void setPerRole(boolean perRole) {
+        this.perRole = perRole;
+    }
+
+    public Settings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Settings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Settings> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Settings> routes) {
+        this.routes = routes;
+    }
+
+    public Map<String, Settings> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(Map<String, Settings> roles) {
+        this.roles = roles;
+    }
+
+    public static class Settings {
+        private int maxConcurrentCalls = 100;
+        // 0 = rejeita na hora quando não há permissão livre
+        private long maxWaitMs = 0;
+        // Máximo de requisições aguardando permissão ao mesmo tempo
+        private int maxWaiting = 100;
+        private int retryAfterSeconds = 1;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getMaxWaiting() {
+            return maxWaiting;
+        }
+
+        public void setMaxWaiting(int maxWaiting) {
+            this.maxWaiting = maxWaiting;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -1,32 +1,28 @@
 package com.example.gateway.config;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
-
 @Configuration
 public class CircuitBreakerConfiguration {
 
+    /**
+     * Circuit breakers sem instância própria no application.yml usam a config "default"
+     * declarada lá, para que exista uma única fonte dos limites.
+     */
     @Bean
-    public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer() {
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                                                   TimeLimiterRegistry timeLimiterRegistry) {
         return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
-                .circuitBreakerConfig(CircuitBreakerConfig.custom()
-                        .slidingWindowSize(10)
-                        .failureRateThreshold(50)
-                        .waitDurationInOpenState(Duration.ofSeconds(10))
-                        .permittedNumberOfCallsInHalfOpenState(5)
-                        .slowCallDurationThreshold(Duration.ofSeconds(2))
-                        .slowCallRateThreshold(50)
-                        .build())
-                .timeLimiterConfig(TimeLimiterConfig.custom()
-                        .timeoutDuration(Duration.ofSeconds(3))
-                        .build())
+                .circuitBreakerConfig(circuitBreakerRegistry.getConfiguration("default")
+                        .orElseGet(circuitBreakerRegistry::getDefaultConfig))
+                .timeLimiterConfig(timeLimiterRegistry.getConfiguration("default")
+                        .orElseGet(timeLimiterRegistry::getDefaultConfig))
                 .build());
     }
 }
@@ -0,0 +1,136 @@
+package com.example.gateway.config;
+
+import com.example.gateway.filter.JwtAuthenticationFilter;
+import com.example.gateway.filter.WarmupRequests;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aquece o gateway antes de ele ficar pronto: o Spring Boot só marca o readiness
+ * (/actuator/health/readiness) como ACCEPTING_TRAFFIC depois que os ApplicationRunners
+ * terminam. Valida JWTs sintéticos e faz GETs no próprio gateway (gateway.warmup.paths),
+ * exercitando os filtros das rotas, o JIT e as conexões com os serviços.
+ * <p>
+ * Os GETs levam o header de WarmupRequests, então o limite de concorrência, o LatencyTracker do
+ * hedging e o cache stale não guardam nada deles. O circuit breaker não tem como ignorá-los:
+ * ao fim os circuit breakers voltam ao estado inicial, descartando as chamadas do aquecimento.
+ * Um caminho que falha deixa de ser chamado, para não multiplicar as tentativas do Retry com
+ * um serviço que ainda está subindo.
+ */
+@Component
+public class GatewayWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayWarmupRunner.class);
+
+    private final WarmupProperties properties;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final WarmupRequests warmupRequests;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final WebClient.Builder webClientBuilder;
+    private final Environment environment;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private volatile long durationMs = -1;
+    private final Map<String, Integer> requestsByPath = new LinkedHashMap<>();
+
+    public GatewayWarmupRunner(WarmupProperties properties,
+                               JwtAuthenticationFilter jwtAuthenticationFilter,
+                               WarmupRequests warmupRequests,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               WebClient.Builder webClientBuilder,
+                               Environment environment) {
+        this.properties = properties;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.warmupRequests = warmupRequests;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.webClientBuilder = webClientBuilder;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            log.info("Aquecimento desativado (gateway.warmup.enabled=false)");
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDurationMs() * 1_000_000L;
+
+        String token = Jwts.builder()
+                .claim("userId", "warmup")
+                .claim("role", "warmup")
+                .setExpiration(new Date(System.currentTimeMillis() + properties.getMaxDurationMs() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        for (int i = 0; i < properties.getJwtIterations() && System.nanoTime() < deadline; i++) {
+            jwtAuthenticationFilter.parseClaims(token);
+        }
+
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port != null) {
+            WebClient client = webClientBuilder.clone().baseUrl("http://localhost:" + port).build();
+            for (String path : properties.getPaths()) {
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000L;
+                if (remainingMs <= 0) {
+                    break;
+                }
+                requestsByPath.put(path, warmPath(client, path, token, Duration.ofMillis(remainingMs)));
+            }
+            circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+        }
+
+        durationMs = (System.nanoTime() - start) / 1_000_000L;
+        log.info("Aquecimento concluído em {} ms ({} validações de JWT, requisições por caminho: {})",
+                durationMs, properties.getJwtIterations(), requestsByPath);
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public Map<String, Integer> getRequestsByPath() {
+        return Map.copyOf(requestsByPath);
+    }
+
+    // Requisições bem-sucedidas no caminho; para na primeira falha
+    private int warmPath(WebClient client, String path, String token, Duration timeout) {
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            Flux.range(0, properties.getRequestsPerPath())
+                    .flatMap(i -> client.get()
+                            .uri(path)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(WarmupRequests.HEADER, warmupRequests.getToken())
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnNext(response -> succeeded.incrementAndGet()), properties.getConcurrency())
+                    .then()
+                    .block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("Aquecimento de {} interrompido após {} requisições: {}", path, succeeded.get(), e.getMessage());
+        }
+        return succeeded.get();
+    }
+}
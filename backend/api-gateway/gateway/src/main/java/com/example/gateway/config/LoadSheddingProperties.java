@@ -0,0 +1,169 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Descarte de carga por prioridade. Cada requisição recebe uma prioridade pela primeira
+ * regra que casar (caminho, método e papel do usuário); com a pressão do gateway
+ * (atraso do event loop e fila de espera por conexões upstream) acima do limite da
+ * prioridade, a requisição é rejeitada com 503. CRITICAL nunca é descartada.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public class LoadSheddingProperties {
+
+    public enum Tier {
+        CRITICAL, HIGH, NORMAL, LOW
+    }
+
+    private boolean enabled = true;
+    private long probeIntervalMs = 100;
+    // Atraso do event loop até o qual a pressão é zero, e a partir do qual é máxima
+    private long eventLoopLagTargetMs = 20;
+    private long eventLoopLagMaxMs = 200;
+    // Requisições aguardando conexão nos pools upstream para pressão máxima
+    private int pendingAcquiresMax = 200;
+    // Peso da amostra nova na média móvel da pressão
+    private double smoothing = 0.3;
+    private int retryAfterSeconds = 2;
+    private Tier defaultTier = Tier.NORMAL;
+    // Pressão (0 a 1) a partir da qual cada prioridade é descartada
+    private Map<Tier, Double> shedAt = new EnumMap<>(Map.of(Tier.LOW, 0.3, Tier.NORMAL, 0.6, Tier.HIGH, 0.9));
+    private List<Rule> rules = new ArrayList<>();
+
+    public double shedThreshold(Tier tier) {
+        if (tier == Tier.CRITICAL) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return shedAt.getOrDefault(tier, Double.POSITIVE_INFINITY);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getProbeIntervalMs() {
+        return probeIntervalMs;
+    }
+
+    public void setProbeIntervalMs(long probeIntervalMs) {
+        this.probeIntervalMs = probeIntervalMs;
+    }
+
+    public long getEventLoopLagTargetMs() {
+        return eventLoopLagTargetMs;
+    }
+
+    public void setEventLoopLagTargetMs(long eventLoopLagTargetMs) {
+        this.eventLoopLagTargetMs = eventLoopLagTargetMs;
+    }
+
+    public long getEventLoopLagMaxMs() {
+        return eventLoopLagMaxMs;
+    }
+
+    public void setEventLoopLagMaxMs(long eventLoopLagMaxMs) {
+        this.eventLoopLagMaxMs = eventLoopLagMaxMs;
+    }
+
+    public int getPendingAcquiresMax() {
+        return pendingAcquiresMax;
+    }
+
+    public void setPendingAcquiresMax(int pendingAcquiresMax) {
+        this.pendingAcquiresMax = pendingAcquiresMax;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Tier getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(Tier defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public Map<Tier, Double> getShedAt() {
+        return shedAt;
+    }
+
+    public void setShedAt(Map<Tier, Double> shedAt) {
+        this.shedAt = shedAt;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Critérios vazios casam com qualquer valor; paths aceita padrões Ant (* e **).
+     */
+    public static class Rule {
+        private Tier tier = Tier.NORMAL;
+        private List<String> paths = new ArrayList<>();
+        private List<String> methods = new ArrayList<>();
+        // Papel do usuário (header X-User-Role, definido pelo JwtAuthenticationFilter)
+        private List<String> roles = new ArrayList<>();
+
+        public Tier getTier() {
+            return tier;
+        }
+
+        public void setTier(Tier tier) {
+            this.tier = tier;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+    }
+}
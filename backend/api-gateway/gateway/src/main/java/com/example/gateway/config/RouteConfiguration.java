@@ -1,6 +1,11 @@
 package com.example.gateway.config;
 
+import com.example.gateway.filter.BulkheadFilter;
+import com.example.gateway.filter.ConcurrencyLimitFilter;
+import com.example.gateway.filter.HedgingFilter;
 import com.example.gateway.filter.JwtAuthenticationFilter;
+import com.example.gateway.filter.LoadSheddingFilter;
+import com.example.gateway.filter.StaleResponseCacheFilter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +13,8 @@ import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
 @Configuration
@@ -25,6 +32,24 @@ public class RouteConfiguration {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private LoadSheddingFilter loadSheddingFilter;
+
+    @Autowired
+    private BulkheadFilter bulkheadFilter;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private HedgingFilter hedgingFilter;
+
+    @Autowired
+    private StaleResponseCacheFilter staleResponseCacheFilter;
+
+    @Autowired
+    private UpstreamClientProperties upstreamClientProperties;
+
     @Bean
     public RouteLocator routes(RouteLocatorBuilder builder) {
         return builder.routes()
@@ -32,6 +57,9 @@ public class RouteConfiguration {
                 .route("auth-service", r -> r
                         .path("/api/auth/**")
                         .filters(f -> f
+                                .filter(loadSheddingFilter.apply(new LoadSheddingFilter.Config()))
+                                .filter(bulkheadFilter.apply(new BulkheadFilter.Config("auth-service")))
+                                .filter(concurrencyLimitFilter.apply(new ConcurrencyLimitFilter.Config("auth-service")))
                                 .stripPrefix(1)
                                 .circuitBreaker(config -> config
                                         .setName("authCircuitBreaker")
@@ -40,12 +68,30 @@ public class RouteConfiguration {
                                     retryConfig.setRetries(3);
                                     retryConfig.setStatuses(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.SERVICE_UNAVAILABLE);
                                 }))
+                        .metadata(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, upstreamClientProperties.forRoute("auth-service").getConnectTimeoutMs())
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, upstreamClientProperties.forRoute("auth-service").getResponseTimeoutMs())
                         .uri(authServiceUrl))
+                // Streams SSE do order-service (conexões longas: sem circuit breaker/time limiter e sem retry)
+                .route("order-events", r -> r
+                        .path("/api/orders/*/events", "/api/orders/driver/*/events")
+                        .and().method(HttpMethod.GET)
+                        .filters(f -> f
+                                .filter(jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()))
+                                .stripPrefix(1))
+                        // Valor negativo desativa o timeout de resposta para os streams
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, -1)
+                        .uri(orderServiceUrl))
                 // Rota para order-service (protegida)
                 .route("order-service", r -> r
                         .path("/api/orders/**")
                         .filters(f -> f
                                 .filter(jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()))
+                                .filter(loadSheddingFilter.apply(new LoadSheddingFilter.Config()))
+                                .filter(bulkheadFilter.apply(new BulkheadFilter.Config("order-service")))
+                                .filter(concurrencyLimitFilter.apply(new ConcurrencyLimitFilter.Config("order-service")))
+                                // Depois do JWT (a chave usa o X-User-Id) e antes do circuit breaker: marca os GETs
+                                // cujas respostas o fallback serve com o circuito aberto
+                                .filter(staleResponseCacheFilter.apply(new StaleResponseCacheFilter.Config()))
                                 .stripPrefix(1)
                                 .circuitBreaker(config -> config
                                         .setName("orderCircuitBreaker")
@@ -53,13 +99,25 @@ public class RouteConfiguration {
                                 .retry(retryConfig -> {
                                     retryConfig.setRetries(3);
                                     retryConfig.setStatuses(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.SERVICE_UNAVAILABLE);
-                                }))
+                                })
+                                // Deve ser o último filtro: executa ele mesmo a chamada dos GETs. Só os de resposta
+                                // limitada; listagens e /driver/{id} (sem paginação) seguem em streaming
+                                .filter(hedgingFilter.apply(new HedgingFilter.Config("order-service",
+                                        "/orders/{id:\\d+}", "/orders/{id:\\d+}/locations/latest"))))
+                        .metadata(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, upstreamClientProperties.forRoute("order-service").getConnectTimeoutMs())
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, upstreamClientProperties.forRoute("order-service").getResponseTimeoutMs())
                         .uri(orderServiceUrl))
                 // Rota para tracking-service (protegida)
                 .route("tracking-service", r -> r
                         .path("/api/tracking/**")
                         .filters(f -> f
                                 .filter(jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()))
+                                .filter(loadSheddingFilter.apply(new LoadSheddingFilter.Config()))
+                                .filter(bulkheadFilter.apply(new BulkheadFilter.Config("tracking-service")))
+                                .filter(concurrencyLimitFilter.apply(new ConcurrencyLimitFilter.Config("tracking-service")))
+                                // Depois do JWT (a chave usa o X-User-Id) e antes do circuit breaker: marca os GETs
+                                // cujas respostas o fallback serve com o circuito aberto
+                                .filter(staleResponseCacheFilter.apply(new StaleResponseCacheFilter.Config()))
                                 .stripPrefix(1)
                                 .circuitBreaker(config -> config
                                         .setName("trackingCircuitBreaker")
@@ -67,7 +125,13 @@ public class RouteConfiguration {
                                 .retry(retryConfig -> {
                                     retryConfig.setRetries(3);
                                     retryConfig.setStatuses(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.SERVICE_UNAVAILABLE);
-                                }))
+                                })
+                                // Deve ser o último filtro: executa ele mesmo a chamada dos GETs. Só os de resposta
+                                // limitada; o histórico de posições segue em streaming
+                                .filter(hedgingFilter.apply(new HedgingFilter.Config("tracking-service",
+                                        "/tracking/order/*/current", "/tracking/order/*/check", "/tracking/driver/*/summary"))))
+                        .metadata(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, upstreamClientProperties.forRoute("tracking-service").getConnectTimeoutMs())
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, upstreamClientProperties.forRoute("tracking-service").getResponseTimeoutMs())
                         .uri(trackingServiceUrl))
                 // Rota de teste para circuit breaker
                 .route("test-circuit-breaker", r -> r
@@ -0,0 +1,60 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache das últimas respostas boas dos GETs, servidas pelo fallback quando o circuito abre.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.stale-cache")
+public class StaleCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 5000;
+    // Respostas maiores que isso não são guardadas
+    private int maxBodyBytes = 256 * 1024;
+    private long maxTotalBytes = 64L * 1024 * 1024;
+    // Idade máxima de uma resposta para ainda ser servida como "stale"
+    private long maxStaleSeconds = 600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public void setMaxTotalBytes(long maxTotalBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    public long getMaxStaleSeconds() {
+        return maxStaleSeconds;
+    }
+
+    public void setMaxStaleSeconds(long maxStaleSeconds) {
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.gateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Substitui o HttpClient padrão do Spring Cloud Gateway por um com pool de conexões
+ * dimensionado por serviço de destino (o Reactor Netty mantém um pool por host).
+ * Os timeouts por rota são aplicados via metadata das rotas em RouteConfiguration.
+ */
+@Configuration
+public class UpstreamHttpClientConfiguration {
+
+    @Value("${AUTH_SERVICE_URL:http://auth-service:3000}")
+    private String authServiceUrl;
+
+    @Value("${ORDER_SERVICE_URL:http://order-service:8080}")
+    private String orderServiceUrl;
+
+    @Value("${TRACKING_SERVICE_URL:http://tracking-service:8081}")
+    private String trackingServiceUrl;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(UpstreamClientProperties properties, UpstreamPoolMetrics poolMetrics) {
+        UpstreamClientProperties.Settings defaults = properties.getDefaults();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("gateway-upstream")
+                .maxConnections(defaults.getMaxConnections())
+                .pendingAcquireMaxCount(defaults.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(defaults.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(defaults.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(defaults.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(defaults.getEvictionIntervalMs()))
+                .metrics(true, () -> poolMetrics);
+
+        Map.of("auth-service", authServiceUrl,
+                "order-service", orderServiceUrl,
+                "tracking-service", trackingServiceUrl).forEach((routeId, url) -> {
+            UpstreamClientProperties.Settings settings = properties.forRoute(routeId);
+            URI uri = URI.create(url);
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+            builder.forRemoteHost(InetSocketAddress.createUnresolved(uri.getHost(), port), spec -> spec
+                    .maxConnections(settings.getMaxConnections())
+                    .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                    .pendingAcquireTimeout(Duration.ofMillis(settings.getPendingAcquireTimeoutMs()))
+                    .maxIdleTime(Duration.ofMillis(settings.getMaxIdleTimeMs()))
+                    .maxLifeTime(Duration.ofMillis(settings.getMaxLifeTimeMs()))
+                    .evictInBackground(Duration.ofMillis(settings.getEvictionIntervalMs())));
+        });
+
+        return builder.build();
+    }
+
+    /**
+     * Sem responseTimeout global: ele é aplicado por rota, o que permite desativá-lo
+     * nas rotas de streaming (SSE).
+     */
+    @Bean
+    public HttpClient gatewayHttpClient(ConnectionProvider upstreamConnectionProvider, UpstreamClientProperties properties) {
+        HttpProtocol[] protocols = properties.getProtocols().stream()
+                .map(HttpProtocol::valueOf)
+                .toArray(HttpProtocol[]::new);
+
+        return HttpClient.create(upstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getDefaults().getConnectTimeoutMs())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(properties.isKeepAlive())
+                .protocol(protocols);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gateway.config;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recebe do Reactor Netty as métricas de cada pool de conexões (um por host de
+ * destino) e as disponibiliza para o endpoint /actuator/upstream-pools.
+ */
+@Component
+public class UpstreamPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(remoteAddress.toString(), metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(remoteAddress.toString());
+    }
+
+    /**
+     * Total de requisições aguardando conexão livre em todos os pools.
+     */
+    public int totalPendingAcquires() {
+        return pools.values().stream().mapToInt(ConnectionPoolMetrics::pendingAcquireSize).sum();
+    }
+
+    public Map<String, Map<String, Integer>> snapshot() {
+        Map<String, Map<String, Integer>> snapshot = new HashMap<>();
+        pools.forEach((address, metrics) -> snapshot.put(address, Map.of(
+                "active", metrics.acquiredSize(),
+                "idle", metrics.idleSize(),
+                "allocated", metrics.allocatedSize(),
+                "pendingAcquires", metrics.pendingAcquireSize(),
+                "maxConnections", metrics.maxAllocatedSize(),
+                "maxPendingAcquires", metrics.maxPendingAcquireSize()
+        )));
+        return snapshot;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aquecimento antes do readiness: validações de JWT sintéticos e requisições do gateway para
+ * ele mesmo, que passam pelos filtros das rotas e abrem conexões nos pools upstream.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+    private int jwtIterations = 5000;
+    // GETs sem efeito colateral, chamados com um token sintético
+    private List<String> paths = new ArrayList<>(List.of("/api/orders/ok"));
+    private int requestsPerPath = 50;
+    private int concurrency = 4;
+    // Limite do aquecimento inteiro: passado disso o gateway fica pronto mesmo assim
+    private long maxDurationMs = 30000;
+    // Janela após o readiness em que as latências são registradas para comparação
+    private long latencyWindowSeconds = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getJwtIterations() {
+        return jwtIterations;
+    }
+
+    public void setJwtIterations(int jwtIterations) {
+        this.jwtIterations = jwtIterations;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public int getRequestsPerPath() {
+        return requestsPerPath;
+    }
+
+    public void setRequestsPerPath(int requestsPerPath) {
+        this.requestsPerPath = requestsPerPath;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getMaxDurationMs() {
+        return maxDurationMs;
+    }
+
+    public void setMaxDurationMs(long maxDurationMs) {
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    public long getLatencyWindowSeconds() {
+        return latencyWindowSeconds;
+    }
+
+    public void setLatencyWindowSeconds(long latencyWindowSeconds) {
+        this.latencyWindowSeconds = latencyWindowSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.gateway.controller;
 
+import com.example.gateway.filter.BulkheadFilter;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +18,11 @@ import java.util.stream.Collectors;
 public class CircuitBreakerController {
 
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadFilter bulkheadFilter;
 
-    public CircuitBreakerController(CircuitBreakerRegistry circuitBreakerRegistry) {
+    public CircuitBreakerController(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadFilter bulkheadFilter) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadFilter = bulkheadFilter;
     }
 
     @GetMapping
@@ -35,6 +38,18 @@ public class CircuitBreakerController {
                 ));
         
         status.put("circuitBreakers", circuitBreakers);
+
+        // Saturação dos bulkheads por rota (e por papel, quando configurado)
+        Map<String, Object> bulkheads = new HashMap<>();
+        bulkheadFilter.getBulkheads().forEach((key, bulkhead) -> bulkheads.put(key, Map.of(
+                "maxConcurrentCalls", bulkhead.getMaxConcurrentCalls(),
+                "inUse", bulkhead.getInUse(),
+                "waiting", bulkhead.getWaiting(),
+                "saturation", bulkhead.getSaturation(),
+                "permitted", bulkhead.getPermitted(),
+                "rejected", bulkhead.getRejected()
+        )));
+        status.put("bulkheads", bulkheads);
         
         return Mono.just(ResponseEntity.ok(status));
     }
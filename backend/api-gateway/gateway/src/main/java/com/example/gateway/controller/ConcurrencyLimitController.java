@@ -0,0 +1,42 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.filter.AdaptiveConcurrencyLimiter;
+import com.example.gateway.filter.ConcurrencyLimitFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/concurrency-limits")
+public class ConcurrencyLimitController {
+
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    public ConcurrencyLimitController(ConcurrencyLimitFilter concurrencyLimitFilter) {
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getConcurrencyLimits() {
+        Map<String, Object> routes = new HashMap<>();
+
+        concurrencyLimitFilter.getLimiters().forEach((routeId, limiter) -> routes.put(routeId, toStatus(limiter)));
+
+        return Mono.just(ResponseEntity.ok(Map.of("routes", routes)));
+    }
+
+    private Map<String, Object> toStatus(AdaptiveConcurrencyLimiter limiter) {
+        return Map.of(
+                "limit", limiter.getLimit(),
+                "inFlight", limiter.getInFlight(),
+                "rejected", limiter.getRejected(),
+                "lastRttMs", limiter.getLastRttMillis(),
+                "longRttMs", limiter.getLongRttMillis()
+        );
+    }
+}
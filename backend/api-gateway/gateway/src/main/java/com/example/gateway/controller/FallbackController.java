@@ -1,10 +1,14 @@
 package com.example.gateway.controller;
 
+import com.example.gateway.filter.StaleResponseCache;
+import com.example.gateway.filter.StaleResponseCacheFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
@@ -14,7 +18,14 @@ import java.util.Map;
 @RequestMapping("/fallback")
 public class FallbackController {
 
-    @GetMapping("/auth")
+    private final StaleResponseCache staleResponseCache;
+
+    public FallbackController(StaleResponseCache staleResponseCache) {
+        this.staleResponseCache = staleResponseCache;
+    }
+
+    // Aceita qualquer método: POST/PUT/DELETE encaminhados pelo circuit breaker falham logo com 503
+    @RequestMapping("/auth")
     public Mono<ResponseEntity<Map<String, String>>> authFallback() {
         Map<String, String> response = new HashMap<>();
         response.put("status", "error");
@@ -23,21 +34,38 @@ public class FallbackController {
         return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
     }
 
-    @GetMapping("/order")
-    public Mono<ResponseEntity<Map<String, String>>> orderFallback() {
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "error");
-        response.put("message", "Serviço de pedidos temporariamente indisponível. Tente novamente mais tarde.");
-        
-        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
+    @RequestMapping("/order")
+    public Mono<ResponseEntity<?>> orderFallback(ServerWebExchange exchange) {
+        return staleOrUnavailable(exchange, "Serviço de pedidos temporariamente indisponível. Tente novamente mais tarde.");
+    }
+
+    @RequestMapping("/tracking")
+    public Mono<ResponseEntity<?>> trackingFallback(ServerWebExchange exchange) {
+        return staleOrUnavailable(exchange, "Serviço de rastreamento temporariamente indisponível. Tente novamente mais tarde.");
     }
 
-    @GetMapping("/tracking")
-    public Mono<ResponseEntity<Map<String, String>>> trackingFallback() {
+    /**
+     * Para GETs, devolve a última resposta boa guardada pelo StaleResponseCaptureFilter, marcada
+     * com Age e Warning. Sem cópia guardada (ou para métodos que alteram dados), responde 503.
+     */
+    private Mono<ResponseEntity<?>> staleOrUnavailable(ServerWebExchange exchange, String message) {
+        String key = exchange.getAttribute(StaleResponseCacheFilter.CACHE_KEY_ATTR);
+        if (exchange.getRequest().getMethod() == HttpMethod.GET && key != null) {
+            StaleResponseCache.CachedResponse cached = staleResponseCache.getStale(key);
+            if (cached != null) {
+                exchange.getAttributes().put(StaleResponseCacheFilter.STALE_SERVED_ATTR, true);
+                HttpHeaders headers = new HttpHeaders();
+                headers.addAll(cached.headers());
+                headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+                headers.add("Warning", "110 - \"Response is Stale\"");
+                return Mono.just(ResponseEntity.ok().headers(headers).body(cached.body()));
+            }
+        }
+
         Map<String, String> response = new HashMap<>();
         response.put("status", "error");
-        response.put("message", "Serviço de rastreamento temporariamente indisponível. Tente novamente mais tarde.");
-        
+        response.put("message", message);
+
         return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
     }
 }
@@ -0,0 +1,38 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.filter.HedgingFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/hedging")
+public class HedgingController {
+
+    private final HedgingFilter hedgingFilter;
+
+    public HedgingController(HedgingFilter hedgingFilter) {
+        this.hedgingFilter = hedgingFilter;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getHedgingStatus() {
+        Map<String, Object> routes = new HashMap<>();
+
+        hedgingFilter.getStates().forEach((routeId, state) -> routes.put(routeId, Map.of(
+                "requests", state.getRequests(),
+                "hedged", state.getHedged(),
+                "hedgeWins", state.getHedgeWins(),
+                "hedgeRate", state.getHedgeRate(),
+                "hedgeWinRate", state.getHedgeWinRate(),
+                "hedgeDelayMs", state.hedgeDelayMillis()
+        )));
+
+        return Mono.just(ResponseEntity.ok(Map.of("routes", routes)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.config.LoadSheddingProperties;
+import com.example.gateway.config.LoadSheddingProperties.Tier;
+import com.example.gateway.filter.LoadPressureMonitor;
+import com.example.gateway.filter.LoadSheddingFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/load-shedding")
+public class LoadSheddingController {
+
+    private final LoadSheddingFilter loadSheddingFilter;
+    private final LoadSheddingProperties properties;
+
+    public LoadSheddingController(LoadSheddingFilter loadSheddingFilter, LoadSheddingProperties properties) {
+        this.loadSheddingFilter = loadSheddingFilter;
+        this.properties = properties;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getLoadShedding() {
+        LoadPressureMonitor monitor = loadSheddingFilter.getMonitor();
+        double pressure = monitor.getPressure();
+
+        Map<String, Object> tiers = new HashMap<>();
+        List<String> shedding = new ArrayList<>();
+        for (Tier tier : Tier.values()) {
+            double threshold = properties.shedThreshold(tier);
+            if (pressure >= threshold) {
+                shedding.add(tier.name());
+            }
+            tiers.put(tier.name(), Map.of(
+                    "shedAt", Double.isInfinite(threshold) ? "never" : threshold,
+                    "admitted", loadSheddingFilter.getAdmitted(tier),
+                    "shed", loadSheddingFilter.getShed(tier)
+            ));
+        }
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", properties.isEnabled());
+        status.put("pressure", pressure);
+        status.put("eventLoopLagMs", monitor.getEventLoopLagMs());
+        status.put("pendingAcquires", monitor.getPendingAcquires());
+        status.put("sheddingTiers", properties.isEnabled() ? shedding : List.of());
+        status.put("tiers", tiers);
+        return Mono.just(ResponseEntity.ok(status));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.filter.StaleResponseCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/stale-cache")
+public class StaleCacheController {
+
+    private final StaleResponseCache staleResponseCache;
+
+    public StaleCacheController(StaleResponseCache staleResponseCache) {
+        this.staleResponseCache = staleResponseCache;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getStaleCacheStatus() {
+        return Mono.just(ResponseEntity.ok(Map.of(
+                "entries", staleResponseCache.size(),
+                "totalBytes", staleResponseCache.getTotalBytes(),
+                "stored", staleResponseCache.getStored(),
+                "staleHits", staleResponseCache.getStaleHits(),
+                "misses", staleResponseCache.getMisses()
+        )));
+    }
+}
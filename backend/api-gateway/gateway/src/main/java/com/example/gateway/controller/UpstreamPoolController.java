@@ -0,0 +1,26 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.config.UpstreamPoolMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/upstream-pools")
+public class UpstreamPoolController {
+
+    private final UpstreamPoolMetrics upstreamPoolMetrics;
+
+    public UpstreamPoolController(UpstreamPoolMetrics upstreamPoolMetrics) {
+        this.upstreamPoolMetrics = upstreamPoolMetrics;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getUpstreamPools() {
+        return Mono.just(ResponseEntity.ok(Map.of("pools", upstreamPoolMetrics.snapshot())));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.config.GatewayWarmupRunner;
+import com.example.gateway.filter.StartupLatencyFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/actuator/warmup")
+public class WarmupController {
+
+    private final GatewayWarmupRunner warmupRunner;
+    private final StartupLatencyFilter startupLatencyFilter;
+
+    public WarmupController(GatewayWarmupRunner warmupRunner, StartupLatencyFilter startupLatencyFilter) {
+        this.warmupRunner = warmupRunner;
+        this.startupLatencyFilter = startupLatencyFilter;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getWarmup() {
+        return Mono.just(ResponseEntity.ok(Map.of(
+                "durationMs", warmupRunner.getDurationMs(),
+                "requestsByPath", warmupRunner.getRequestsByPath(),
+                "firstMinuteLatency", startupLatencyFilter.summary()
+        )));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de concorrência adaptativo (algoritmo de gradiente, no estilo do
+ * Gradient2 da Netflix). A cada janela de amostras compara a latência recente
+ * com a latência de longo prazo: se a recente sobe, o limite encolhe; se está
+ * estável, o limite cresce em ~sqrt(limite). Falhas e timeouts aplicam um recuo
+ * multiplicativo (AIMD).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Quantidade de janelas usada na média móvel da latência de longo prazo
+    private static final double LONG_WINDOW = 20;
+
+    private final ConcurrencyLimitProperties.Settings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private volatile long lastRttNanos;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties.Settings settings) {
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a permissão e registra a amostra.
+     *
+     * @param rttNanos latência observada da chamada
+     * @param dropped  true se a chamada falhou, expirou ou o upstream respondeu 5xx
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, dropped, inFlightAtRelease);
+    }
+
+    /**
+     * Libera a permissão sem registrar amostra (ex.: o cliente cancelou a requisição).
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(long rttNanos, boolean dropped, int inFlightAtRelease) {
+        if (dropped) {
+            limit = clamp(limit * settings.getBackoffRatio());
+            return;
+        }
+
+        lastRttNanos = rttNanos;
+        windowRttSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+        if (windowCount < settings.getWindowSize()) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) / LONG_WINDOW;
+        // Se a latência de longo prazo ficou muito acima da recente (recuperação), aproxima as duas
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Aplicação ociosa: o limite atual não está sendo exercitado, então não cresce
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, settings.getRttTolerance() * longRttNanos / shortRtt));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        limit = clamp(limit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public double getLastRttMillis() {
+        return lastRttNanos / 1_000_000.0;
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    public int getRetryAfterSeconds() {
+        return settings.getRetryAfterSeconds();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.BulkheadProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Isola as rotas com um bulkhead (semáforo) por rota, e opcionalmente por papel do
+ * usuário. Um serviço lento esgota apenas as permissões da própria rota; o excedente
+ * é rejeitado com 503 antes de chegar ao circuit breaker, sem contar como falha dele.
+ */
+@Component
+public class BulkheadFilter extends AbstractGatewayFilterFactory<BulkheadFilter.Config> {
+
+    private final BulkheadProperties properties;
+    private final Map<String, ReactiveBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadFilter(BulkheadProperties properties) {
+        super(Config.class);
+        this.properties = properties;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+
+            ReactiveBulkhead bulkhead = bulkheadFor(routeId, exchange.getRequest().getHeaders().getFirst("X-User-Role"));
+            return bulkhead.acquire().flatMap(acquired -> {
+                if (!acquired) {
+                    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfterSeconds()));
+                    return exchange.getResponse().setComplete();
+                }
+                return chain.filter(exchange).doFinally(signal -> bulkhead.release());
+            });
+        };
+    }
+
+    private ReactiveBulkhead bulkheadFor(String routeId, String role) {
+        // X-User-Role é definido pelo JwtAuthenticationFilter. Só papéis listados em "roles" ganham
+        // bulkhead próprio (o header pode vir do cliente nas rotas públicas); os demais usam o da rota
+        if (!properties.isPerRole() || role == null || !properties.getRoles().containsKey(role)) {
+            return bulkheads.computeIfAbsent(routeId, key -> new ReactiveBulkhead(properties.forRoute(routeId)));
+        }
+        return bulkheads.computeIfAbsent(routeId + ":" + role,
+                key -> new ReactiveBulkhead(properties.forRole(routeId, role)));
+    }
+
+    public Map<String, ReactiveBulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    public static class Config {
+        private String routeId;
+
+        public Config() {
+        }
+
+        public Config(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.ConcurrencyLimitProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica um limite adaptativo de requisições simultâneas por rota. Requisições
+ * acima do limite são rejeitadas imediatamente com 503 e Retry-After, antes de
+ * chegarem ao circuit breaker ou ao upstream.
+ */
+@Component
+public class ConcurrencyLimitFilter extends AbstractGatewayFilterFactory<ConcurrencyLimitFilter.Config> {
+
+    private final ConcurrencyLimitProperties properties;
+    private final WarmupRequests warmupRequests;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, WarmupRequests warmupRequests) {
+        super(Config.class);
+        this.properties = properties;
+        this.warmupRequests = warmupRequests;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(config.getRouteId(),
+                routeId -> new AdaptiveConcurrencyLimiter(properties.forRoute(routeId)));
+
+        return (exchange, chain) -> {
+            // O aquecimento não entra nas amostras de RTT que ajustam o limite
+            if (!properties.isEnabled() || warmupRequests.matches(exchange)) {
+                return chain.filter(exchange);
+            }
+
+            if (!limiter.tryAcquire()) {
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getRetryAfterSeconds()));
+                return exchange.getResponse().setComplete();
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limiter.releaseWithoutSample();
+                            return;
+                        }
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean dropped = signal == SignalType.ON_ERROR
+                                || (status != null && status.is5xxServerError());
+                        limiter.release(System.nanoTime() - start, dropped);
+                    });
+        };
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters;
+    }
+
+    public static class Config {
+        private String routeId;
+
+        public Config() {
+        }
+
+        public Config(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
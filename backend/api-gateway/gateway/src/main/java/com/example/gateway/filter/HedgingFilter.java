@@ -0,0 +1,306 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.HedgingProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requisições "hedged" para GETs idempotentes. Se a primeira tentativa não responder
+ * dentro do percentil de latência da rota, uma segunda tentativa é enviada numa nova
+ * conexão; vence a primeira resposta e a outra é cancelada. Um orçamento limita a
+ * carga extra a uma fração das requisições.
+ * <p>
+ * Deve ser o último filtro da rota: ele mesmo executa a chamada ao upstream e escreve
+ * a resposta, marcando a exchange como já roteada.
+ * <p>
+ * Cada tentativa é lida inteira em memória antes de ser escrita (até
+ * gateway.hedging.max-response-bytes, 1 MB por padrão), por isso só os caminhos de resposta
+ * limitada listados na Config da rota passam por aqui; os demais GETs seguem em streaming pelo
+ * roteamento normal. Se ainda assim a resposta principal passar do limite (pelo Content-Length ou
+ * durante a leitura), a requisição é refeita pelo roteamento normal em vez de falhar.
+ */
+@Component
+public class HedgingFilter extends AbstractGatewayFilterFactory<HedgingFilter.Config> {
+
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.HOST, HttpHeaders.UPGRADE, "Keep-Alive", "TE", "Trailer");
+
+    private final HedgingProperties properties;
+    private final WebClient webClient;
+    private final WarmupRequests warmupRequests;
+    private final Map<String, RouteHedgeState> states = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public HedgingFilter(HedgingProperties properties, WebClient.Builder webClientBuilder, HttpClient gatewayHttpClient,
+                         WarmupRequests warmupRequests) {
+        super(Config.class);
+        this.properties = properties;
+        this.warmupRequests = warmupRequests;
+        // Mesmo pool de conexões usado pelo roteamento normal do gateway
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(gatewayHttpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(properties.getMaxResponseBytes()))
+                .build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RouteHedgeState state = states.computeIfAbsent(config.getRouteId(), id -> new RouteHedgeState(properties));
+
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            // O aquecimento não entra no LatencyTracker nem no orçamento de hedges
+            if (!properties.isEnabled() || route == null || exchange.getRequest().getMethod() != HttpMethod.GET
+                    || !hedgeable(config, exchange.getRequest().getPath().value()) || warmupRequests.matches(exchange)) {
+                return chain.filter(exchange);
+            }
+
+            URI target = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                    .scheme(route.getUri().getScheme())
+                    .host(route.getUri().getHost())
+                    .port(route.getUri().getPort())
+                    .build(true)
+                    .toUri();
+            HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+            state.requests.incrementAndGet();
+            state.budget.deposit();
+
+            long start = System.nanoTime();
+            Duration responseTimeout = responseTimeout(route);
+            // A tentativa principal cancelada porque o hedge venceu entra com o tempo decorrido até
+            // o cancelamento (um limite inferior): sem isso as mais lentas sumiriam da amostra
+            // Resposta grande demais vence como TOO_LARGE, cancelando o hedge, e segue pelo roteamento normal
+            Mono<Attempt> primary = send(target, requestHeaders, responseTimeout)
+                    .doOnNext(response -> state.tracker.record(System.nanoTime() - start))
+                    .doOnCancel(() -> state.tracker.record(System.nanoTime() - start))
+                    .map(response -> new Attempt(response, false))
+                    .onErrorReturn(DataBufferLimitException.class, Attempt.TOO_LARGE);
+
+            // O hedge entra com a latência que ele mesmo observou, desde o seu envio
+            Mono<Attempt> hedge = Mono.delay(Duration.ofMillis(state.hedgeDelayMillis()))
+                    .filter(tick -> state.budget.tryWithdraw())
+                    .doOnNext(tick -> state.hedged.incrementAndGet())
+                    .flatMap(tick -> {
+                        long hedgeStart = System.nanoTime();
+                        return send(target, requestHeaders, responseTimeout)
+                                .doOnNext(response -> state.tracker.record(System.nanoTime() - hedgeStart));
+                    })
+                    .map(response -> new Attempt(response, true));
+
+            // firstWithValue cancela a tentativa perdedora assim que a outra responde; se ambas
+            // falharem, propaga o primeiro erro real para o circuit breaker
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class,
+                            error -> error.getSuppressed().length > 0 ? error.getSuppressed()[0] : error)
+                    .flatMap(attempt -> {
+                        if (attempt == Attempt.TOO_LARGE) {
+                            return chain.filter(exchange);
+                        }
+                        if (attempt.hedge()) {
+                            state.hedgeWins.incrementAndGet();
+                        }
+                        return writeResponse(exchange, attempt.response());
+                    });
+        };
+    }
+
+    public Map<String, RouteHedgeState> getStates() {
+        return states;
+    }
+
+    private Mono<ResponseEntity<byte[]>> send(URI target, HttpHeaders requestHeaders, Duration responseTimeout) {
+        return webClient.get()
+                .uri(target)
+                .httpRequest(request -> {
+                    if (responseTimeout != null) {
+                        HttpClientRequest nativeRequest = request.getNativeRequest();
+                        nativeRequest.responseTimeout(responseTimeout);
+                    }
+                })
+                .headers(headers -> requestHeaders.forEach((name, values) -> {
+                    if (!isHopByHop(name)) {
+                        headers.addAll(name, values);
+                    }
+                }))
+                .exchangeToMono(response -> {
+                    long contentLength = response.headers().contentLength().orElse(-1);
+                    if (contentLength > properties.getMaxResponseBytes()) {
+                        return response.releaseBody().then(Mono.error(new DataBufferLimitException(
+                                "Resposta de " + contentLength + " bytes acima de gateway.hedging.max-response-bytes")));
+                    }
+                    return response.toEntity(byte[].class);
+                });
+    }
+
+    private boolean hedgeable(Config config, String path) {
+        return config.getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private static Duration responseTimeout(Route route) {
+        Object value = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+        if (value instanceof Number number && number.longValue() >= 0) {
+            return Duration.ofMillis(number.longValue());
+        }
+        return null;
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.getStatusCode());
+        upstream.getHeaders().forEach((name, values) -> {
+            if (!isHopByHop(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+
+        byte[] body = upstream.getBody();
+        if (body == null || body.length == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP_HEADERS.stream().anyMatch(headerName::equalsIgnoreCase);
+    }
+
+    private record Attempt(ResponseEntity<byte[]> response, boolean hedge) {
+        static final Attempt TOO_LARGE = new Attempt(null, false);
+    }
+
+    /**
+     * Estado por rota: latências observadas, orçamento de hedge e contadores.
+     */
+    public static class RouteHedgeState {
+
+        private final HedgingProperties properties;
+        private final LatencyTracker tracker;
+        private final HedgeBudget budget;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedged = new AtomicLong();
+        private final AtomicLong hedgeWins = new AtomicLong();
+
+        RouteHedgeState(HedgingProperties properties) {
+            this.properties = properties;
+            this.tracker = new LatencyTracker(properties.getSampleSize(), properties.getPercentile());
+            this.budget = new HedgeBudget(properties.getBudgetRatio(), properties.getMaxBudget());
+        }
+
+        public long hedgeDelayMillis() {
+            long percentileNanos = tracker.getPercentileNanos();
+            if (percentileNanos < 0) {
+                return properties.getInitialDelayMs();
+            }
+            long millis = percentileNanos / 1_000_000;
+            return Math.max(properties.getMinDelayMs(), Math.min(properties.getMaxDelayMs(), millis));
+        }
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getHedged() {
+            return hedged.get();
+        }
+
+        public long getHedgeWins() {
+            return hedgeWins.get();
+        }
+
+        public double getHedgeRate() {
+            long total = requests.get();
+            return total == 0 ? 0 : (double) hedged.get() / total;
+        }
+
+        public double getHedgeWinRate() {
+            long total = hedged.get();
+            return total == 0 ? 0 : (double) hedgeWins.get() / total;
+        }
+    }
+
+    /**
+     * Cada requisição deposita budgetRatio fichas (até maxBudget) e cada hedge consome uma,
+     * limitando os hedges a ~budgetRatio das requisições.
+     */
+    static class HedgeBudget {
+
+        private final double ratio;
+        private final double max;
+        private double tokens;
+
+        HedgeBudget(double ratio, double max) {
+            this.ratio = ratio;
+            this.max = max;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(max, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    public static class Config {
+        private String routeId;
+        // Caminhos (já sem o prefixo removido pela rota) de resposta limitada; sem nenhum, não há hedge
+        private List<String> paths = new ArrayList<>();
+
+        public Config() {
+        }
+
+        public Config(String routeId, String... paths) {
+            this.routeId = routeId;
+            this.paths = List.of(paths);
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+    }
+}
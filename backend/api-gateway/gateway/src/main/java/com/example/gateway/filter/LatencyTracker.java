@@ -0,0 +1,50 @@
+package com.example.gateway.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reservatório circular com as latências mais recentes de uma rota. O percentil
+ * é recalculado a cada RECOMPUTE_EVERY amostras e lido sem custo entre recálculos.
+ * As amostras são gravadas por várias threads do Netty ao mesmo tempo (AtomicLongArray).
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final double percentile;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(int sampleSize, double percentile) {
+        this.samples = new AtomicLongArray(sampleSize);
+        this.percentile = percentile;
+    }
+
+    public void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(n + 1, samples.length()));
+        }
+    }
+
+    /**
+     * @return o percentil configurado em nanos, ou -1 enquanto não houver amostras suficientes
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int size) {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.min(copy.length - 1, Math.ceil(percentile * copy.length) - 1);
+        percentileNanos = copy[Math.max(0, index)];
+    }
+}
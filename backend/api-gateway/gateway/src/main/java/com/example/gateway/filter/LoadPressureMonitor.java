@@ -0,0 +1,126 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.LoadSheddingProperties;
+import com.example.gateway.config.UpstreamPoolMetrics;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede a pressão sobre o gateway, de 0 a 1, combinando dois sinais:
+ * <ul>
+ *   <li>atraso do event loop: a cada probeIntervalMs uma tarefa vazia é agendada em cada
+ *   event loop do servidor, e o tempo até ela rodar indica quanto trabalho está enfileirado
+ *   (um loop travado continua acumulando atraso até a tarefa rodar);</li>
+ *   <li>fila de espera por conexões nos pools upstream (pendingAcquires).</li>
+ * </ul>
+ * Vale o maior dos dois, suavizado por média móvel.
+ */
+@Component
+public class LoadPressureMonitor {
+
+    private final LoadSheddingProperties properties;
+    private final UpstreamPoolMetrics upstreamPoolMetrics;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "gateway-load-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Probe> probes;
+    private volatile long eventLoopLagNanos;
+    private volatile int pendingAcquires;
+    private volatile double pressure;
+
+    public LoadPressureMonitor(LoadSheddingProperties properties, UpstreamPoolMetrics upstreamPoolMetrics) {
+        this.properties = properties;
+        this.upstreamPoolMetrics = upstreamPoolMetrics;
+        scheduler.scheduleWithFixedDelay(this::probe, properties.getProbeIntervalMs(),
+                properties.getProbeIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public double getPressure() {
+        return pressure;
+    }
+
+    public double getEventLoopLagMs() {
+        return eventLoopLagNanos / 1_000_000.0;
+    }
+
+    public int getPendingAcquires() {
+        return pendingAcquires;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void probe() {
+        try {
+            long lag = measureEventLoopLag();
+            int pending = upstreamPoolMetrics.totalPendingAcquires();
+            eventLoopLagNanos = lag;
+            pendingAcquires = pending;
+
+            double lagMs = lag / 1_000_000.0;
+            double lagPressure = ratio(lagMs - properties.getEventLoopLagTargetMs(),
+                    properties.getEventLoopLagMaxMs() - properties.getEventLoopLagTargetMs());
+            double queuePressure = ratio(pending, properties.getPendingAcquiresMax());
+            double sample = Math.max(lagPressure, queuePressure);
+            pressure = pressure + properties.getSmoothing() * (sample - pressure);
+        } catch (RuntimeException e) {
+            // Uma falha na medição não pode parar as próximas execuções agendadas
+        }
+    }
+
+    /**
+     * Maior atraso entre os event loops: o da última sonda concluída ou, se a sonda anterior
+     * ainda não rodou, o tempo desde o envio dela.
+     */
+    private long measureEventLoopLag() {
+        if (probes == null) {
+            // Mesmos event loops usados pelo servidor Netty (recursos globais do Reactor Netty)
+            List<Probe> loops = new ArrayList<>();
+            HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE)
+                    .forEach(loop -> loops.add(new Probe(loop, new AtomicLong(), new AtomicLong())));
+            probes = loops;
+        }
+
+        long maxLag = 0;
+        long now = System.nanoTime();
+        for (Probe probe : probes) {
+            long pendingSince = probe.sentAt().get();
+            if (pendingSince != 0) {
+                maxLag = Math.max(maxLag, now - pendingSince);
+                continue;
+            }
+            maxLag = Math.max(maxLag, probe.lastLag().get());
+            probe.sentAt().set(now);
+            probe.loop().execute(() -> {
+                probe.lastLag().set(System.nanoTime() - now);
+                probe.sentAt().set(0);
+            });
+        }
+        return maxLag;
+    }
+
+    private record Probe(EventExecutor loop, AtomicLong sentAt, AtomicLong lastLag) {
+    }
+
+    private static double ratio(double value, double max) {
+        if (max <= 0) {
+            return value > 0 ? 1 : 0;
+        }
+        return Math.max(0, Math.min(1, value / max));
+    }
+}
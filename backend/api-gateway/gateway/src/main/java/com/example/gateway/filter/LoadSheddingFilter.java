@@ -0,0 +1,103 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.LoadSheddingProperties;
+import com.example.gateway.config.LoadSheddingProperties.Tier;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Descarta primeiro as requisições de menor prioridade quando o gateway está sob pressão
+ * (LoadPressureMonitor), respondendo 503 com Retry-After antes de ocupar bulkheads, limites
+ * de concorrência ou conexões upstream. Deve vir antes dos demais filtros da rota, mas
+ * depois do JwtAuthenticationFilter, que define o header X-User-Role usado nas regras.
+ */
+@Component
+public class LoadSheddingFilter extends AbstractGatewayFilterFactory<LoadSheddingFilter.Config> {
+
+    public static final String SHED_HEADER = "X-Load-Shed";
+
+    private final LoadSheddingProperties properties;
+    private final LoadPressureMonitor monitor;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<Tier, LongAdder> admitted = new EnumMap<>(Tier.class);
+    private final Map<Tier, LongAdder> shed = new EnumMap<>(Tier.class);
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, LoadPressureMonitor monitor) {
+        super(Config.class);
+        this.properties = properties;
+        this.monitor = monitor;
+        for (Tier tier : Tier.values()) {
+            admitted.put(tier, new LongAdder());
+            shed.put(tier, new LongAdder());
+        }
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+
+            Tier tier = classify(exchange.getRequest());
+            if (monitor.getPressure() < properties.shedThreshold(tier)) {
+                admitted.get(tier).increment();
+                return chain.filter(exchange);
+            }
+
+            shed.get(tier).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+            exchange.getResponse().getHeaders().set(SHED_HEADER, tier.name());
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    /**
+     * Prioridade da primeira regra que casar com caminho, método e papel; sem regra, defaultTier.
+     */
+    public Tier classify(ServerHttpRequest request) {
+        String path = request.getPath().value();
+        String method = request.getMethod().name();
+        String role = request.getHeaders().getFirst("X-User-Role");
+
+        for (LoadSheddingProperties.Rule rule : properties.getRules()) {
+            if (!rule.getPaths().isEmpty() && rule.getPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path))) {
+                continue;
+            }
+            if (!rule.getMethods().isEmpty() && rule.getMethods().stream().noneMatch(method::equalsIgnoreCase)) {
+                continue;
+            }
+            if (!rule.getRoles().isEmpty() && (role == null || rule.getRoles().stream().noneMatch(role::equalsIgnoreCase))) {
+                continue;
+            }
+            return rule.getTier();
+        }
+        return properties.getDefaultTier();
+    }
+
+    public LoadPressureMonitor getMonitor() {
+        return monitor;
+    }
+
+    public long getAdmitted(Tier tier) {
+        return admitted.get(tier).sum();
+    }
+
+    public long getShed(Tier tier) {
+        return shed.get(tier).sum();
+    }
+
+    public static class Config {
+        // Sem configuração por rota
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.BulkheadProperties;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Semáforo não bloqueante: quem não consegue permissão espera (sem ocupar thread do
+ * event loop) até maxWait, numa fila limitada, ou é rejeitado na hora.
+ */
+public class ReactiveBulkhead {
+
+    private final BulkheadProperties.Settings settings;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int available;
+
+    private final AtomicLong permitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ReactiveBulkhead(BulkheadProperties.Settings settings) {
+        this.settings = settings;
+        this.available = settings.getMaxConcurrentCalls();
+    }
+
+    private static final class Waiter {
+        final Sinks.One<Boolean> sink = Sinks.one();
+        // Protegido pelo lock do bulkhead: garante que a desistência seja tratada uma única vez
+        boolean settled;
+    }
+
+    /**
+     * Emite true quando a permissão foi obtida (e deve ser devolvida com {@link #release()}),
+     * ou false quando a requisição deve ser rejeitada.
+     */
+    public Mono<Boolean> acquire() {
+        return Mono.defer(() -> {
+            Waiter waiter;
+            synchronized (this) {
+                if (available > 0) {
+                    available--;
+                    permitted.incrementAndGet();
+                    return Mono.just(true);
+                }
+                if (settings.getMaxWaitMs() <= 0 || waiters.size() >= settings.getMaxWaiting()) {
+                    rejected.incrementAndGet();
+                    return Mono.just(false);
+                }
+                waiter = new Waiter();
+                waiters.addLast(waiter);
+            }
+
+            return waiter.sink.asMono()
+                    .timeout(Duration.ofMillis(settings.getMaxWaitMs()), Mono.fromCallable(() -> giveUp(waiter)))
+                    .doOnCancel(() -> {
+                        // Cliente desistiu enquanto esperava: se a permissão já tinha sido entregue, devolve
+                        if (giveUp(waiter)) {
+                            release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * @return true se a permissão já tinha sido entregue a este waiter antes da desistência
+     * (apenas na primeira chamada; as seguintes retornam false)
+     */
+    private synchronized boolean giveUp(Waiter waiter) {
+        if (waiter.settled) {
+            return false;
+        }
+        waiter.settled = true;
+        if (waiters.remove(waiter)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        Waiter next;
+        synchronized (this) {
+            next = waiters.pollFirst();
+            if (next == null) {
+                available = Math.min(settings.getMaxConcurrentCalls(), available + 1);
+                return;
+            }
+            permitted.incrementAndGet();
+        }
+        // A permissão passa direto para o próximo da fila; emite fora do lock
+        next.sink.tryEmitValue(true);
+    }
+
+    public int getMaxConcurrentCalls() {
+        return settings.getMaxConcurrentCalls();
+    }
+
+    public synchronized int getInUse() {
+        return settings.getMaxConcurrentCalls() - available;
+    }
+
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    public long getPermitted() {
+        return permitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public double getSaturation() {
+        return (double) getInUse() / settings.getMaxConcurrentCalls();
+    }
+
+    public int getRetryAfterSeconds() {
+        return settings.getRetryAfterSeconds();
+    }
+}
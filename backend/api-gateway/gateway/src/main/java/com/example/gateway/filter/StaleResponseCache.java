@@ -0,0 +1,100 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.StaleCacheProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU limitado (por quantidade e por bytes) com a última resposta 200 de cada GET.
+ */
+@Component
+public class StaleResponseCache {
+
+    private final StaleCacheProperties properties;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public StaleResponseCache(StaleCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public record CachedResponse(HttpHeaders headers, byte[] body, long storedAtMillis) {
+
+        public long ageSeconds() {
+            return Math.max(0, (System.currentTimeMillis() - storedAtMillis) / 1000);
+        }
+    }
+
+    public void put(String key, HttpHeaders headers, byte[] body) {
+        if (body.length > properties.getMaxBodyBytes()) {
+            return;
+        }
+        CachedResponse response = new CachedResponse(headers, body, System.currentTimeMillis());
+        synchronized (entries) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                totalBytes -= previous.body().length;
+            }
+            totalBytes += body.length;
+            evict();
+        }
+        stored.incrementAndGet();
+    }
+
+    /**
+     * @return a resposta guardada, ou null se não existir ou estiver velha demais para ser servida
+     */
+    public CachedResponse getStale(String key) {
+        CachedResponse response;
+        synchronized (entries) {
+            response = entries.get(key);
+        }
+        if (response == null || response.ageSeconds() > properties.getMaxStaleSeconds()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        staleHits.incrementAndGet();
+        return response;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext() && (entries.size() > properties.getMaxEntries() || totalBytes > properties.getMaxTotalBytes())) {
+            totalBytes -= eldest.next().getValue().body().length;
+            eldest.remove();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    public long getStored() {
+        return stored.get();
+    }
+
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.StaleCacheProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marca os GETs da rota cuja última resposta 200 deve ser guardada (por rota, usuário e formato
+ * pedido) para que o FallbackController possa servi-la quando o circuito estiver aberto. Deve ficar
+ * depois do JwtAuthenticationFilter e antes do circuit breaker: a chave fica num atributo da
+ * exchange, que o StaleResponseCaptureFilter usa para guardar a resposta e o fallback recebe.
+ * <p>
+ * Durante o half-open as chamadas de teste renovam o cache se derem certo; as demais recebem a
+ * versão antiga (stale-while-revalidate).
+ */
+@Component
+public class StaleResponseCacheFilter extends AbstractGatewayFilterFactory<StaleResponseCacheFilter.Config> {
+
+    public static final String CACHE_KEY_ATTR = StaleResponseCacheFilter.class.getName() + ".cacheKey";
+    public static final String STALE_SERVED_ATTR = StaleResponseCacheFilter.class.getName() + ".staleServed";
+
+    private final StaleCacheProperties properties;
+    private final WarmupRequests warmupRequests;
+
+    public StaleResponseCacheFilter(StaleCacheProperties properties, WarmupRequests warmupRequests) {
+        super(Config.class);
+        this.properties = properties;
+        this.warmupRequests = warmupRequests;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (properties.isEnabled() && exchange.getRequest().getMethod() == HttpMethod.GET
+                    && !warmupRequests.matches(exchange)) {
+                String key = cacheKey(exchange.getRequest());
+                if (key != null) {
+                    exchange.getAttributes().put(CACHE_KEY_ATTR, key);
+                }
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    // Sem X-User-Id (vindo do JwtAuthenticationFilter) não há como separar as respostas por
+    // usuário, então nada é guardado. O Accept-Encoding fica de fora: a compressão para o
+    // cliente é feita depois, na saída do servidor
+    private static String cacheKey(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String user = headers.getFirst("X-User-Id");
+        if (user == null) {
+            return null;
+        }
+        return request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "")
+                + "|" + user
+                + "|" + headers.getFirst(HttpHeaders.ACCEPT);
+    }
+
+    public static class Config {
+        // Sem configuração por rota
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.StaleCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Copia para o StaleResponseCache as respostas 200 dos GETs marcados pelo StaleResponseCacheFilter.
+ * <p>
+ * Precisa decorar a resposta antes do NettyWriteResponseFilter: ele escreve o corpo vindo do
+ * upstream na resposta da exchange que recebeu, e um decorator aplicado depois dele (como os
+ * filtros de rota, de ordem 0) nunca veria esse corpo.
+ */
+@Component
+public class StaleResponseCaptureFilter implements GlobalFilter, Ordered {
+
+    // Headers que dependem da conexão ou da requisição original e não devem ser reaproveitados
+    private static final List<String> EXCLUDED_HEADERS = List.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.SET_COOKIE, HttpHeaders.DATE, "Keep-Alive");
+
+    private final StaleCacheProperties properties;
+    private final StaleResponseCache cache;
+
+    public StaleResponseCaptureFilter(StaleCacheProperties properties, StaleResponseCache cache) {
+        this.properties = properties;
+        this.cache = cache;
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled() || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // A chave só existe depois que a rota passa pelo StaleResponseCacheFilter
+                String key = exchange.getAttribute(StaleResponseCacheFilter.CACHE_KEY_ATTR);
+                if (key == null || !isCacheable(exchange, this)) {
+                    return super.writeWith(body);
+                }
+
+                ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                boolean[] tooLarge = {false};
+                Flux<? extends DataBuffer> tee = Flux.from(body)
+                        .doOnNext(buffer -> {
+                            int length = buffer.readableByteCount();
+                            if (tooLarge[0] || copy.size() + length > properties.getMaxBodyBytes()) {
+                                tooLarge[0] = true;
+                                return;
+                            }
+                            byte[] bytes = new byte[length];
+                            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                            copy.write(bytes, 0, length);
+                        })
+                        .doOnComplete(() -> {
+                            if (!tooLarge[0]) {
+                                cache.put(key, cacheableHeaders(getHeaders()), copy.toByteArray());
+                            }
+                        });
+                return super.writeWith(tee);
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private static boolean isCacheable(ServerWebExchange exchange, ServerHttpResponseDecorator response) {
+        HttpStatusCode status = response.getStatusCode();
+        if (exchange.getAttribute(StaleResponseCacheFilter.STALE_SERVED_ATTR) != null
+                || status == null || status.value() != HttpStatus.OK.value()) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && cacheControl.contains("no-store")) {
+            return false;
+        }
+        // Um corpo já comprimido pelo upstream só serviria a quem pediu a mesma codificação
+        String contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding)) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        return contentType == null || !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType);
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        source.forEach((name, values) -> {
+            boolean excluded = EXCLUDED_HEADERS.stream().anyMatch(name::equalsIgnoreCase)
+                    || name.regionMatches(true, 0, "Access-Control-", 0, 15);
+            if (!excluded) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.WarmupProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registra a latência das requisições no primeiro minuto (gateway.warmup.latency-window-seconds)
+ * depois do readiness, para comparar subidas com e sem aquecimento. O resumo vai para o log ao
+ * fim da janela e fica em /actuator/warmup.
+ */
+@Component
+public class StartupLatencyFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupLatencyFilter.class);
+    private static final int MAX_SAMPLES = 200_000;
+
+    private final WarmupProperties properties;
+    private final long[] samplesMicros = new long[MAX_SAMPLES];
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile long windowStartNanos = -1;
+
+    public StartupLatencyFilter(WarmupProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        windowStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        if (windowStartNanos < 0 || exchange.getRequest().getPath().value().startsWith("/actuator")) {
+            return chain.filter(exchange);
+        }
+        if (windowClosed(start)) {
+            if (reported.compareAndSet(false, true)) {
+                log.info("Latência nos primeiros {} s após o readiness: {}", properties.getLatencyWindowSeconds(), summary());
+            }
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doFinally(signal -> {
+            int index = count.getAndIncrement();
+            if (index < MAX_SAMPLES) {
+                samplesMicros[index] = (System.nanoTime() - start) / 1000;
+            }
+        });
+    }
+
+    public Map<String, Object> summary() {
+        int recorded = Math.min(count.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(samplesMicros, recorded);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("windowSeconds", properties.getLatencyWindowSeconds());
+        summary.put("windowComplete", windowStartNanos >= 0 && windowClosed(System.nanoTime()));
+        summary.put("requests", count.get());
+        summary.put("p50Ms", percentileMs(sorted, 0.50));
+        summary.put("p95Ms", percentileMs(sorted, 0.95));
+        summary.put("p99Ms", percentileMs(sorted, 0.99));
+        summary.put("maxMs", recorded == 0 ? 0.0 : sorted[recorded - 1] / 1000.0);
+        return summary;
+    }
+
+    private boolean windowClosed(long now) {
+        return now - windowStartNanos > properties.getLatencyWindowSeconds() * 1_000_000_000L;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+}
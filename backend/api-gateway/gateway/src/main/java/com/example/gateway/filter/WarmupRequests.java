@@ -0,0 +1,31 @@
+package com.example.gateway.filter;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Identifica as requisições do GatewayWarmupRunner, que os filtros com estado (limite de
+ * concorrência, hedging e cache stale) deixam passar sem registrar nada. O valor do header é
+ * sorteado a cada subida, então um cliente externo não consegue usá-lo para escapar dos limites.
+ */
+@Component
+public class WarmupRequests {
+
+    public static final String HEADER = "X-Gateway-Warmup";
+
+    private final String token = UUID.randomUUID().toString();
+
+    public String getToken() {
+        return token;
+    }
+
+    public boolean matches(ServerWebExchange exchange) {
+        String value = exchange.getRequest().getHeaders().getFirst(HEADER);
+        return value != null && MessageDigest.isEqual(
+                value.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.gateway.filter;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+// Sem hedging: o corpo chega ao cliente pelo NettyWriteResponseFilter, como nas rotas sem GETs especulativos
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ORDER_SERVICE_URL=http://localhost:${wiremock.server.port}",
+		"JWT_SECRET=" + StaleResponseCacheFilterTest.SECRET,
+		"gateway.hedging.enabled=false",
+		"gateway.warmup.enabled=false"
+})
+@AutoConfigureWireMock(port = 0)
+class StaleResponseCacheFilterTest {
+
+	static final String SECRET = "segredo-de-teste-com-pelo-menos-32-bytes";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void upstreamFailureGetsTheLastGoodBody() {
+		stubFor(get(urlEqualTo("/orders/7")).willReturn(okJson("{\"id\":7,\"status\":\"PENDING\"}")));
+		webTestClient.get().uri("/api/orders/7")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(1))
+				.exchange()
+				.expectStatus().isOk();
+
+		stubFor(get(urlEqualTo("/orders/7")).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+		webTestClient.get().uri("/api/orders/7")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(1))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().exists(HttpHeaders.AGE)
+				.expectHeader().valueMatches("Warning", "110 .*")
+				.expectBody().json("{\"id\":7,\"status\":\"PENDING\"}");
+	}
+
+	@Test
+	void cachedBodyIsNotServedToAnotherUser() {
+		stubFor(get(urlEqualTo("/orders/8")).willReturn(okJson("{\"id\":8}")));
+		webTestClient.get().uri("/api/orders/8")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(1))
+				.exchange()
+				.expectStatus().isOk();
+
+		stubFor(get(urlEqualTo("/orders/8")).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+		webTestClient.get().uri("/api/orders/8")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(2))
+				.exchange()
+				.expectStatus().is5xxServerError();
+	}
+
+	private static String token(long userId) {
+		return Jwts.builder()
+				.claim("userId", userId)
+				.claim("role", "customer")
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+				.compact();
+	}
+}
@@ -0,0 +1,62 @@
+#!/bin/bash
+# Mede o tempo até a primeira requisição bem-sucedida do order-service e do gateway,
+# comparando a subida padrão (java -jar) com o perfil fast-startup (AppCDS + Spring AOT)
+# e com o fast-startup somado à inicialização preguiçosa (SPRING_LAZY_INIT=true).
+#
+# Uso: ./benchmark-startup.sh [repeticoes]
+# Requer: docker compose (com o .env do projeto) e curl. O postgres precisa estar de pé:
+#   docker compose up -d postgres
+
+REPEAT=${1:-3}
+ORDER_PORT=18080
+GATEWAY_PORT=18000
+
+set -e
+docker compose build order-service api-gateway
+set +e
+
+# Milissegundos desde a epoch (date +%s%N não existe em todas as plataformas)
+now_ms() {
+    python3 -c 'import time; print(int(time.time() * 1000))'
+}
+
+# measure <serviço> <porta> <caminho> <JAVA_OPTS> <SPRING_LAZY_INIT>
+measure() {
+    local service=$1 port=$2 path=$3 java_opts=$4 lazy=$5
+    local container="startup-bench-$service"
+    local start end
+
+    start=$(now_ms)
+    docker compose run -d --rm --no-deps --name "$container" -p "$port:8080" \
+        -e JAVA_OPTS="$java_opts" -e SPRING_LAZY_INIT="$lazy" "$service" > /dev/null
+
+    until curl -sf -o /dev/null "http://localhost:$port$path"; do
+        sleep 0.05
+    done
+    end=$(now_ms)
+
+    docker stop "$container" > /dev/null
+    echo $((end - start))
+}
+
+run_variant() {
+    local label=$1 java_opts=$2 lazy=$3
+    local order_total=0 gateway_total=0 ms
+
+    for i in $(seq "$REPEAT"); do
+        ms=$(measure order-service $ORDER_PORT /orders/ok "$java_opts" "$lazy")
+        order_total=$((order_total + ms))
+        ms=$(measure api-gateway $GATEWAY_PORT /actuator/concurrency-limits "$java_opts" "$lazy")
+        gateway_total=$((gateway_total + ms))
+    done
+
+    printf "%-22s order-service: %6d ms   gateway: %6d ms\n" \
+        "$label" $((order_total / REPEAT)) $((gateway_total / REPEAT))
+}
+
+FAST_OPTS="-XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true"
+
+echo "⏱️  Tempo até a primeira requisição bem-sucedida (média de $REPEAT execuções):"
+run_variant "padrão (java -jar)" "" false
+run_variant "AppCDS + AOT" "$FAST_OPTS" false
+run_variant "AppCDS + AOT + lazy" "$FAST_OPTS" true
@@ -0,0 +1,87 @@
+#!/bin/bash
+# Compara subidas com e sem a fase de aquecimento (orders.warmup / gateway.warmup): tempo até
+# o readiness, duração do aquecimento e latência das requisições no primeiro minuto depois dele.
+#
+# Uso: ./benchmark-warmup.sh [segundos de carga] [clientes concorrentes]
+# Requer: docker compose (com o .env do projeto), curl e python3. O postgres e os serviços
+# chamados pelo gateway precisam estar de pé:
+#   docker compose up -d postgres order-service auth-service tracking-service
+
+DURATION=${1:-60}
+CLIENTS=${2:-8}
+ORDER_PORT=18080
+GATEWAY_PORT=18000
+
+set -e
+docker compose build order-service api-gateway
+set +e
+
+# Token sintético assinado com o JWT_SECRET do .env (as rotas de pedidos são protegidas)
+TOKEN=$(set -a; . ./.env; set +a; python3 - <<'EOF'
+import base64, hashlib, hmac, json, os, time
+b64 = lambda data: base64.urlsafe_b64encode(data).rstrip(b"=").decode()
+header = b64(json.dumps({"alg": "HS256"}).encode())
+payload = b64(json.dumps({"userId": "benchmark", "role": "benchmark", "exp": int(time.time()) + 3600}).encode())
+signature = hmac.new(os.environ["JWT_SECRET"].encode(), f"{header}.{payload}".encode(), hashlib.sha256).digest()
+print(f"{header}.{payload}.{b64(signature)}")
+EOF
+)
+
+now_ms() {
+    python3 -c 'import time; print(int(time.time() * 1000))'
+}
+
+# load <url> <arquivo>: CLIENTS laços de curl por DURATION segundos, uma latência (s) por linha
+load() {
+    local url=$1 out=$2 end=$(( $(date +%s) + DURATION ))
+    : > "$out"
+    for c in $(seq "$CLIENTS"); do
+        (
+            while [ "$(date +%s)" -lt "$end" ]; do
+                curl -s -o /dev/null -w "%{time_total}\n" -H "Authorization: Bearer $TOKEN" "$url" >> "$out"
+            done
+        ) &
+    done
+    wait
+}
+
+percentiles() {
+    python3 - "$1" <<'EOF'
+import sys
+values = sorted(float(line) * 1000 for line in open(sys.argv[1]) if line.strip())
+pick = lambda p: values[max(0, int(len(values) * p + 0.5) - 1)] if values else 0
+print(f"{len(values):6d} req   p50 {pick(0.50):7.1f} ms   p99 {pick(0.99):7.1f} ms   máx {values[-1] if values else 0:7.1f} ms")
+EOF
+}
+
+# measure <serviço> <porta> <caminho de carga> <ORDERS_WARMUP_ENABLED/GATEWAY_WARMUP_ENABLED>
+measure() {
+    local service=$1 port=$2 path=$3 warmup=$4
+    local container="warmup-bench-$service"
+    local samples start ready
+
+    samples=$(mktemp)
+    start=$(now_ms)
+    docker compose run -d --rm --no-deps --name "$container" -p "$port:8080" \
+        -e ORDERS_WARMUP_ENABLED="$warmup" -e GATEWAY_WARMUP_ENABLED="$warmup" "$service" > /dev/null
+
+    until curl -sf -o /dev/null "http://localhost:$port/actuator/health/readiness"; do
+        sleep 0.05
+    done
+    ready=$(now_ms)
+
+    load "http://localhost:$port$path" "$samples"
+    printf "  readiness em %6d ms   %s\n" $((ready - start)) "$(percentiles "$samples")"
+    docker logs "$container" 2>&1 | grep -E "Aquecimento concluído" | sed 's/^/  /'
+
+    docker stop "$container" > /dev/null
+    rm -f "$samples"
+}
+
+for warmup in false true; do
+    echo "🔥 Aquecimento: $warmup (carga de ${DURATION}s, $CLIENTS clientes)"
+    echo " order-service (GET /orders?size=20):"
+    measure order-service $ORDER_PORT "/orders?size=20" $warmup
+    echo " gateway (GET /api/orders/ok):"
+    measure api-gateway $GATEWAY_PORT /api/orders/ok $warmup
+done
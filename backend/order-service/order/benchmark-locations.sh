@@ -0,0 +1,98 @@
+#!/bin/bash
+# Benchmark da ingestão de posições (POST /orders/{id}/locations): vazão em pontos por segundo
+# num nó, com lotes como os enviados pelo aplicativo do motorista. Cria pedidos ON_COURSE
+# sintéticos direto no Postgres do docker compose e mede lotes aceitos (202) e recusados
+# por fila cheia (503), além das linhas gravadas em order_locations ao fim.
+#
+# Uso: ./benchmark-locations.sh [segundos] [clientes concorrentes] [pontos por lote] [pedidos]
+# Requer: docker compose (executar no diretório backend/ ou com COMPOSE_FILE) e python3.
+# ATENÇÃO: insere dados no banco configurado; use apenas em ambiente de teste.
+
+DURATION=${1:-30}
+CLIENTS=${2:-32}
+BATCH=${3:-50}
+ORDERS=${4:-2000}
+ORDER_SERVICE=${ORDER_SERVICE:-http://localhost:8080}
+
+set -a
+[ -f .env ] && . ./.env
+set +a
+
+psql() {
+    docker compose exec -T postgres psql -U "$POSTGRES_USER" -d "$POSTGRES_DB" -At "$@"
+}
+
+echo "🌱 Inserindo $ORDERS pedidos ON_COURSE sintéticos..."
+IDS=$(psql <<SQL
+INSERT INTO orders (customer_id, driver_id, status, description,
+                    origin_street, origin_number, origin_neighborhood, origin_city, origin_latitude, origin_longitude,
+                    destination_street, destination_number, destination_neighborhood, destination_city, destination_latitude, destination_longitude)
+SELECT (random() * 10000)::bigint, 1 + (i % 500), 'ON_COURSE', 'Benchmark de posições ' || i,
+       'Rua da Bahia', (i % 2000)::text, 'Centro', 'Belo Horizonte', -19.92, -43.94,
+       'Avenida Amazonas', (i % 1500)::text, 'Barro Preto', 'Belo Horizonte', -19.93, -43.95
+FROM generate_series(1, $ORDERS) AS s(i)
+RETURNING id;
+SQL
+)
+BEFORE=$(psql -c "SELECT count(*) FROM order_locations")
+
+echo "🚚 Enviando lotes de $BATCH posições por ${DURATION}s com $CLIENTS clientes..."
+python3 - "$ORDER_SERVICE" "$DURATION" "$CLIENTS" "$BATCH" $IDS <<'EOF'
+import http.client, json, random, sys, threading, time
+from datetime import datetime, timezone
+from urllib.parse import urlparse
+
+base, duration, clients, batch = urlparse(sys.argv[1]), float(sys.argv[2]), int(sys.argv[3]), int(sys.argv[4])
+order_ids = sys.argv[5:]
+deadline = time.monotonic() + duration
+lock = threading.Lock()
+counts = {"accepted": 0, "rejected": 0, "errors": 0}
+latencies = []
+
+def body():
+    now = datetime.now(timezone.utc).isoformat()
+    return json.dumps({"points": [{"latitude": -19.92 + random.random() / 10, "longitude": -43.94 + random.random() / 10,
+                                   "recordedAt": now} for _ in range(batch)]})
+
+def client():
+    connection = http.client.HTTPConnection(base.hostname, base.port or 80)
+    local = {"accepted": 0, "rejected": 0, "errors": 0}
+    local_latencies = []
+    while time.monotonic() < deadline:
+        start = time.monotonic()
+        try:
+            connection.request("POST", f"/orders/{random.choice(order_ids)}/locations", body(),
+                               {"Content-Type": "application/json"})
+            response = connection.getresponse()
+            response.read()
+        except OSError:
+            local["errors"] += 1
+            connection = http.client.HTTPConnection(base.hostname, base.port or 80)
+            continue
+        local_latencies.append(time.monotonic() - start)
+        key = "accepted" if response.status == 202 else "rejected" if response.status == 503 else "errors"
+        local[key] += 1
+    with lock:
+        for key, value in local.items():
+            counts[key] += value
+        latencies.extend(local_latencies)
+
+threads = [threading.Thread(target=client) for _ in range(clients)]
+started = time.monotonic()
+for thread in threads:
+    thread.start()
+for thread in threads:
+    thread.join()
+elapsed = time.monotonic() - started
+
+latencies.sort()
+pick = lambda p: latencies[max(0, int(len(latencies) * p + 0.5) - 1)] * 1000 if latencies else 0
+print(f"  lotes aceitos {counts['accepted']}, recusados (503) {counts['rejected']}, erros {counts['errors']}")
+print(f"  {counts['accepted'] * batch / elapsed:,.0f} pontos/s aceitos   "
+      f"p50 {pick(0.50):.1f} ms   p99 {pick(0.99):.1f} ms")
+EOF
+
+# A thread de gravação esvazia a fila em segundo plano
+sleep 5
+AFTER=$(psql -c "SELECT count(*) FROM order_locations")
+echo "💾 $((AFTER - BEFORE)) posições gravadas em order_locations"
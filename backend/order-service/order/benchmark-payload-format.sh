@@ -0,0 +1,57 @@
+#!/bin/bash
+# Benchmark dos formatos de resposta (JSON x CBOR) numa página de pedidos: tamanho (sem e com
+# gzip), latência da resposta (serialização no servidor + transferência) e tempo de
+# decodificação no cliente. Usa os pedidos que já estão no banco (ver benchmark-search.sh
+# para popular).
+#
+# Uso: ./benchmark-payload-format.sh [tamanho da página] [repeticoes]
+# Requer: curl e python3; a decodificação de CBOR no cliente só é medida com o pacote cbor2
+# instalado (pip install cbor2).
+
+PAGE_SIZE=${1:-50}
+REPEAT=${2:-200}
+ORDER_SERVICE=${ORDER_SERVICE:-http://localhost:8080}
+URL="$ORDER_SERVICE/orders?size=$PAGE_SIZE"
+
+JSON_BODY=$(mktemp)
+CBOR_BODY=$(mktemp)
+trap 'rm -f "$JSON_BODY" "$CBOR_BODY"' EXIT
+
+curl -sf -H "Accept: application/json" -o "$JSON_BODY" "$URL" || { echo "Falha ao consultar $URL"; exit 1; }
+curl -sf -H "Accept: application/cbor" -o "$CBOR_BODY" "$URL" || { echo "Falha ao consultar $URL em CBOR"; exit 1; }
+
+echo "📦 Página com $PAGE_SIZE pedidos:"
+for format in json cbor; do
+    body=$JSON_BODY
+    [ "$format" = cbor ] && body=$CBOR_BODY
+    printf "  %-4s %8d bytes   gzip %8d bytes\n" "$format" "$(wc -c < "$body")" "$(gzip -c "$body" | wc -c)"
+done
+
+echo "⏱️  Latência da resposta ($REPEAT repetições):"
+for accept in application/json application/cbor; do
+    for i in $(seq "$REPEAT"); do
+        curl -s -o /dev/null -H "Accept: $accept" -w "%{time_total}\n" "$URL"
+    done | sort -n | awk -v f="$accept" '{ t[NR] = $1 * 1000 } END {
+        printf "  %-17s p50 %7.2f ms   p95 %7.2f ms   max %7.2f ms\n", f, t[int(NR * 0.5)], t[int(NR * 0.95)], t[NR] }'
+done
+
+echo "🔎 Decodificação no cliente ($REPEAT repetições):"
+python3 - "$JSON_BODY" "$CBOR_BODY" "$REPEAT" <<'EOF'
+import json, sys, time
+
+json_bytes, cbor_bytes, repeat = open(sys.argv[1], "rb").read(), open(sys.argv[2], "rb").read(), int(sys.argv[3])
+
+def measure(name, decode, data):
+    decode(data)
+    start = time.perf_counter()
+    for _ in range(repeat):
+        decode(data)
+    print(f"  {name:<4} {(time.perf_counter() - start) / repeat * 1e6:9.1f} µs/página")
+
+measure("json", json.loads, json_bytes)
+try:
+    import cbor2
+    measure("cbor", cbor2.loads, cbor_bytes)
+except ImportError:
+    print("  cbor (cbor2 não instalado: pip install cbor2)")
+EOF
@@ -0,0 +1,50 @@
+#!/bin/bash
+# Benchmark da busca textual de pedidos (GET /orders/search) sobre 1 milhão de pedidos.
+# Insere pedidos sintéticos direto no Postgres do docker compose e mede a latência
+# de algumas buscas típicas do suporte.
+#
+# Uso: ./benchmark-search.sh [quantidade] [repeticoes]
+# Requer: docker compose (executar no diretório backend/ ou com COMPOSE_FILE), curl e sort.
+# ATENÇÃO: insere dados no banco configurado; use apenas em ambiente de teste.
+
+ORDERS=${1:-1000000}
+REPEAT=${2:-50}
+ORDER_SERVICE=${ORDER_SERVICE:-http://localhost:8080}
+
+set -a
+[ -f .env ] && . ./.env
+set +a
+
+echo "🌱 Inserindo $ORDERS pedidos sintéticos..."
+docker compose exec -T postgres psql -U "$POSTGRES_USER" -d "$POSTGRES_DB" <<SQL
+INSERT INTO orders (customer_id, status, description,
+                    origin_street, origin_number, origin_neighborhood, origin_city, origin_latitude, origin_longitude,
+                    destination_street, destination_number, destination_neighborhood, destination_city, destination_latitude, destination_longitude)
+SELECT (random() * 10000)::bigint,
+       (ARRAY['PENDING', 'ON_COURSE', 'DELIVERIED'])[1 + (i % 3)],
+       (ARRAY['Caixa de documentos', 'Encomenda frágil', 'Eletrônicos', 'Refeição congelada', 'Peças automotivas', 'Medicamentos'])[1 + (i % 6)]
+           || ' pedido ' || i,
+       (ARRAY['Rua São João', 'Avenida Afonso Pena', 'Rua da Bahia', 'Rua Pernambuco', 'Avenida Brasil'])[1 + (i % 5)],
+       (i % 2000)::text,
+       (ARRAY['Savassi', 'Funcionários', 'Lourdes', 'Centro', 'Pampulha', 'Buritis'])[1 + (i % 6)],
+       (ARRAY['Belo Horizonte', 'Contagem', 'Betim', 'Nova Lima'])[1 + (i % 4)],
+       -19.92 + random() / 10, -43.94 + random() / 10,
+       (ARRAY['Rua Goiás', 'Avenida Amazonas', 'Rua Espírito Santo', 'Avenida do Contorno'])[1 + (i % 4)],
+       (i % 1500)::text,
+       (ARRAY['Santa Efigênia', 'Barro Preto', 'Sion', 'Cidade Nova'])[1 + (i % 4)],
+       (ARRAY['Belo Horizonte', 'Sabará', 'Santa Luzia'])[1 + (i % 3)],
+       -19.92 + random() / 10, -43.94 + random() / 10
+FROM generate_series(1, $ORDERS) AS s(i);
+ANALYZE orders;
+SQL
+
+QUERIES=("sao joao" "savassi" "funcionarios eletronicos" "medicamentos contagem" "espirito santo fragil")
+
+echo "⏱️  Latência por busca ($REPEAT repetições, página de 20):"
+for query in "${QUERIES[@]}"; do
+    encoded=${query// /%20}
+    for i in $(seq "$REPEAT"); do
+        curl -s -o /dev/null -w "%{time_total}\n" "$ORDER_SERVICE/orders/search?q=$encoded&size=20"
+    done | sort -n | awk -v q="$query" '{ t[NR] = $1 * 1000 } END {
+        printf "%-28s p50 %7.1f ms   p95 %7.1f ms   max %7.1f ms\n", q, t[int(NR * 0.5)], t[int(NR * 0.95)], t[NR] }'
+done
@@ -0,0 +1,16 @@
+#!/bin/bash
+# Rebalanceamento dos pedidos entre os shards com o serviço no ar.
+# Sobe uma instância temporária do order-service (sem servidor web) que move os buckets
+# até cada shard ficar com a mesma quantidade e encerra.
+#
+# Uso: ./order-service/order/rebalance-shards.sh
+# Requer: docker compose (executar no diretório backend/, com os bancos de docker-compose.sharding.yml no ar).
+
+set -e
+
+COMPOSE_FILES=${COMPOSE_FILES:-"-f docker-compose.yml -f docker-compose.sharding.yml"}
+
+# JAVA_OPTS sem AOT: o ShardRebalancer depende de orders.sharding.rebalance, avaliado na subida
+docker compose $COMPOSE_FILES run --rm --no-deps \
+    -e JAVA_OPTS="-Dorders.sharding.rebalance=true -Dspring.main.web-application-type=none -Dorders.warmup.enabled=false" \
+    order-service
@@ -0,0 +1,22 @@
+package com.service.order.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Habilita application/cbor nos endpoints de pedidos, escolhido pelos headers
+ * Accept/Content-Type. Usa o mesmo builder do Jackson configurado pelo Spring Boot,
+ * então os DTOs seguem as mesmas regras de serialização do JSON.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
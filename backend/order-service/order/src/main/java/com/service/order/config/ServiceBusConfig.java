@@ -5,6 +5,7 @@ import com.azure.messaging.servicebus.ServiceBusSenderClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 @Configuration
 public class ServiceBusConfig {
@@ -15,7 +16,11 @@ public class ServiceBusConfig {
     @Value("${azure.servicebus.topic-name}")
     private String topicName;
 
+    @Value("${azure.servicebus.events-topic-name:order.events}")
+    private String eventsTopicName;
+
     @Bean
+    @Primary
     public ServiceBusSenderClient serviceBusSenderClient() {
         return new ServiceBusClientBuilder()
                 .connectionString(connectionString)
@@ -23,4 +28,14 @@ public class ServiceBusConfig {
                 .topicName(topicName)
                 .buildClient();
     }
+
+    // Eventos de ciclo de vida em binário (OrderEventPublisher); order.finished continua em JSON
+    @Bean
+    public ServiceBusSenderClient orderEventsSenderClient() {
+        return new ServiceBusClientBuilder()
+                .connectionString(connectionString)
+                .sender()
+                .topicName(eventsTopicName)
+                .buildClient();
+    }
 }
@@ -0,0 +1,32 @@
+package com.service.order.config;
+
+import com.service.order.utils.ShardContext;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * DataSource que entrega conexões do shard definido em ShardContext (shard 0 por padrão).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    // Pools dos shards adicionais; o do shard 0 é um bean e o Spring fecha
+    private final List<HikariDataSource> ownedPools;
+
+    public ShardRoutingDataSource(List<HikariDataSource> ownedPools) {
+        this.ownedPools = ownedPools;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() {
+        ownedPools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,151 @@
+package com.service.order.config;
+
+import com.service.order.models.OrderIdGenerator;
+import com.service.order.services.OrderShardRouter;
+import com.service.order.utils.ShardContext;
+import com.service.order.utils.ShardKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Prepara os bancos antes de o serviço receber requisições: schema dos shards adicionais
+ * (o ddl-auto e o db/order-search.sql só atuam no shard 0), a sequência de ids de cada
+ * shard e o mapa bucket -> shard.
+ * <p>
+ * Roda na fase de start do contexto (e não na criação dos beans) para não acessar o banco
+ * no treino do AppCDS, que encerra o contexto antes dessa fase.
+ */
+@Slf4j
+@Component
+public class ShardSchemaInitializer implements SmartLifecycle {
+
+    private static final String SEQUENCE_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('" + OrderIdGenerator.SEQUENCE + "'))";
+
+    private final ShardingProperties properties;
+    private final ShardSchemaIntegrator schemaIntegrator;
+    private final OrderShardRouter router;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean running;
+
+    public ShardSchemaInitializer(ShardingProperties properties,
+                                  ShardSchemaIntegrator schemaIntegrator,
+                                  OrderShardRouter router,
+                                  DataSource dataSource,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.schemaIntegrator = schemaIntegrator;
+        this.router = router;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void start() {
+        for (int shard = 1; shard < properties.shardCount(); shard++) {
+            ShardContext.run(shard, this::createSchema);
+        }
+        for (int shard = 0; shard < properties.shardCount(); shard++) {
+            int target = shard;
+            ShardContext.run(shard, () -> configureSequence(target));
+        }
+        if (properties.isEnabled()) {
+            for (int shard = 0; shard < properties.shardCount(); shard++) {
+                ShardContext.run(shard, this::createBucketIndexes);
+            }
+            ShardContext.run(0, this::createBucketMap);
+            router.refresh();
+            log.info("Pedidos particionados em {} shards", properties.shardCount());
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Antes do servidor web e dos demais componentes com ciclo de vida
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void createSchema() {
+        schemaIntegrator.updateSchema();
+        new ResourceDatabasePopulator(new ClassPathResource("db/order-search.sql")).execute(dataSource);
+    }
+
+    // Seleção dos pedidos de um bucket no rebalanceamento
+    private void createBucketIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_bucket ON orders ((mod(id, " + ShardKeys.BUCKETS + ")))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_archive_bucket ON orders_archive ((mod(id, " + ShardKeys.BUCKETS + ")))");
+    }
+
+    /**
+     * Cria order_id_seq no shard atual, gerando números na classe de resto do shard
+     * (módulo MAX_SHARDS) e acima de todos os ids já existentes em qualquer shard.
+     */
+    private void configureSequence(int shard) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(SEQUENCE_LOCK_SQL);
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + OrderIdGenerator.SEQUENCE);
+            Long increment = jdbcTemplate.queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                    Long.class, OrderIdGenerator.SEQUENCE);
+            if (increment != null && increment == ShardKeys.MAX_SHARDS) {
+                return;
+            }
+
+            long maxId = router.onAllShards(this::maxOrderId).stream().mapToLong(Long::longValue).max().orElse(0);
+            long start = Math.floorDiv(maxId, ShardKeys.BUCKETS) + 1;
+            start += Math.floorMod(shard - start, (long) ShardKeys.MAX_SHARDS);
+            jdbcTemplate.execute("ALTER SEQUENCE " + OrderIdGenerator.SEQUENCE
+                    + " INCREMENT BY " + ShardKeys.MAX_SHARDS + " RESTART WITH " + start);
+            log.info("Sequência de ids do shard {} iniciada em {}", shard, start);
+        });
+    }
+
+    private long maxOrderId() {
+        Long orders = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM orders", Long.class);
+        Long archived = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM orders_archive", Long.class);
+        return Math.max(orders != null ? orders : 0, archived != null ? archived : 0);
+    }
+
+    private void createBucketMap() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS order_shard_buckets (
+                    bucket integer PRIMARY KEY,
+                    shard integer NOT NULL,
+                    state varchar(16) NOT NULL
+                )
+                """);
+        // Na primeira subida particionada todos os pedidos existentes estão no shard 0
+        jdbcTemplate.update("INSERT INTO order_shard_buckets (bucket, shard, state) "
+                + "SELECT b, 0, '" + OrderShardRouter.STATE_ACTIVE + "' FROM generate_series(0, " + (ShardKeys.BUCKETS - 1) + ") b "
+                + "ON CONFLICT (bucket) DO NOTHING");
+    }
+}
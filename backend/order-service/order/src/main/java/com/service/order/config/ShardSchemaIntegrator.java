@@ -0,0 +1,36 @@
+package com.service.order.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+
+import java.util.EnumSet;
+
+/**
+ * Guarda o mapeamento montado pelo Hibernate para aplicar o schema nos shards adicionais:
+ * o ddl-auto só atua no shard 0, que é onde o Hibernate obtém a conexão ao subir.
+ */
+public class ShardSchemaIntegrator implements Integrator {
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Cria/atualiza tabelas e colunas (como ddl-auto=update) no shard definido em ShardContext.
+     */
+    public void updateSchema() {
+        if (metadata == null) {
+            throw new IllegalStateException("Mapeamento do Hibernate ainda não disponível");
+        }
+        new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadata, sessionFactory.getServiceRegistry());
+    }
+}
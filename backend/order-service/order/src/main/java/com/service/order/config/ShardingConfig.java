@@ -0,0 +1,75 @@
+package com.service.order.config;
+
+import com.service.order.utils.ShardKeys;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource com roteamento por shard. Com orders.sharding.enabled=false só existe o
+ * shard 0 (spring.datasource) e o comportamento é o de um único banco.
+ */
+@Configuration
+public class ShardingConfig {
+
+    // Mesmo pool que o Spring Boot criaria para spring.datasource
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryShardDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource primaryShardDataSource, ShardingProperties sharding) {
+        if (sharding.shardCount() > ShardKeys.MAX_SHARDS) {
+            throw new IllegalStateException("No máximo " + ShardKeys.MAX_SHARDS + " shards são suportados");
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, primaryShardDataSource);
+        List<HikariDataSource> pools = new ArrayList<>();
+        if (sharding.isEnabled()) {
+            for (int i = 0; i < sharding.getShards().size(); i++) {
+                ShardingProperties.Shard shard = sharding.getShards().get(i);
+                // Mesmas configurações de pool do shard 0 (tamanho, timeouts, propriedades do driver)
+                HikariDataSource pool = new HikariDataSource();
+                primaryShardDataSource.copyStateTo(pool);
+                pool.setJdbcUrl(shard.getUrl());
+                pool.setUsername(shard.getUsername());
+                pool.setPassword(shard.getPassword());
+                pool.setPoolName("order-shard-" + (i + 1));
+                pools.add(pool);
+                targets.put(i + 1, pool);
+            }
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(pools);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryShardDataSource);
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    @Bean
+    public ShardSchemaIntegrator shardSchemaIntegrator() {
+        return new ShardSchemaIntegrator();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegratorCustomizer(ShardSchemaIntegrator shardSchemaIntegrator) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaIntegrator));
+    }
+}
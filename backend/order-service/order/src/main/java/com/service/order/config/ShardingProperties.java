@@ -0,0 +1,39 @@
+package com.service.order.config;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Particionamento dos pedidos entre vários bancos. O shard 0 é sempre o spring.datasource;
+ * shards lista os bancos adicionais (shard 1 em diante).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "orders.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    // Intervalo de releitura do mapa bucket -> shard (mudanças feitas pelo rebalanceamento)
+    private long refreshMs = 5000;
+    // Threads para consultas em todos os shards em paralelo
+    private int fanOutThreads = 8;
+    // Executa o rebalanceamento ao subir e encerra (ver rebalance-shards.sh)
+    private boolean rebalance = false;
+
+    public int shardCount() {
+        return enabled ? shards.size() + 1 : 1;
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,43 @@
+package com.service.order.config;
+
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.utils.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Configuration
+public class SingleFlightConfig {
+
+    // Compartilha o DTO, nunca a entidade: ela pertence ao contexto de persistência da thread que a leu
+    @Bean
+    public SingleFlight<Long, Optional<OrderResponseDTO>> orderLookupSingleFlight(
+            MeterRegistry meterRegistry,
+            @Value("${orders.single-flight.max-wait-ms:2000}") long maxWaitMs) {
+        SingleFlight<Long, Optional<OrderResponseDTO>> singleFlight = new SingleFlight<>(Duration.ofMillis(maxWaitMs));
+
+        FunctionCounter.builder("orders.lookup.single_flight.calls", singleFlight, SingleFlight::getLeaders)
+                .tag("result", "executed")
+                .description("Buscas de pedido por ID que foram ao banco")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.lookup.single_flight.calls", singleFlight, SingleFlight::getCollapsed)
+                .tag("result", "collapsed")
+                .description("Buscas de pedido por ID atendidas por uma consulta já em andamento")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.lookup.single_flight.failures", singleFlight, SingleFlight::getFailures)
+                .register(meterRegistry);
+        Gauge.builder("orders.lookup.single_flight.collapse_ratio", singleFlight, SingleFlight::collapseRatio)
+                .register(meterRegistry);
+        Gauge.builder("orders.lookup.single_flight.in_flight", singleFlight, SingleFlight::inFlightCount)
+                .register(meterRegistry);
+        return singleFlight;
+    }
+}
@@ -0,0 +1,87 @@
+package com.service.order.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latência das requisições no primeiro minuto (orders.warmup.latency-window-seconds) depois do
+ * readiness, na métrica orders.warmup.first_minute_latency, para comparar subidas com e sem
+ * aquecimento (orders.warmup.enabled). O resumo vai para o log ao fim da janela.
+ */
+@Slf4j
+@Component
+public class StartupLatencyFilter extends OncePerRequestFilter {
+
+    private final Timer firstMinuteLatency;
+    private final long windowNanos;
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile long windowStartNanos = -1;
+
+    public StartupLatencyFilter(MeterRegistry meterRegistry,
+                                @Value("${orders.warmup.latency-window-seconds:60}") long windowSeconds) {
+        this.firstMinuteLatency = Timer.builder("orders.warmup.first_minute_latency")
+                .description("Latência das requisições logo após o readiness")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        windowStartNanos = System.nanoTime();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return windowStartNanos < 0 || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        if (start - windowStartNanos > windowNanos) {
+            if (reported.compareAndSet(false, true)) {
+                report();
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            firstMinuteLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void report() {
+        HistogramSnapshot snapshot = firstMinuteLatency.takeSnapshot();
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.append(String.format(" p%.0f=%.1fms", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+        }
+        log.info("Latência nos primeiros {} s após o readiness: {} requisições, média {} ms, máx {} ms,{}",
+                TimeUnit.NANOSECONDS.toSeconds(windowNanos), snapshot.count(),
+                String.format("%.1f", snapshot.mean(TimeUnit.MILLISECONDS)),
+                String.format("%.1f", snapshot.max(TimeUnit.MILLISECONDS)), percentiles);
+    }
+}
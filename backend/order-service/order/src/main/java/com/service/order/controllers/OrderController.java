@@ -1,7 +1,16 @@
 package com.service.order.controllers;
 
 import com.service.order.dtos.*;
+import com.service.order.enums.OrderStatus;
+import com.service.order.services.IdempotencyService;
+import com.service.order.services.LocationIngestBuffer;
+import com.service.order.services.OrderEventStreamService;
+import com.service.order.services.OrderLocationService;
 import com.service.order.services.OrderService;
+import com.service.order.services.OrderStatsService;
+import com.service.order.services.SparseOrderProjector;
+import com.service.order.services.SupabaseStorageService;
+import com.service.order.utils.ContentHash;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,13 +18,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.http.MediaType;
 
@@ -30,12 +45,22 @@ import org.springframework.http.MediaType;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderEventStreamService orderEventStreamService;
+    private final SparseOrderProjector sparseOrderProjector;
+    private final OrderStatsService orderStatsService;
+    private final IdempotencyService idempotencyService;
+    private final OrderLocationService orderLocationService;
 
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> create(@Valid @RequestBody CreateOrderDTO dto) {
+    public ResponseEntity<OrderResponseDTO> create(
+            @Valid @RequestBody CreateOrderDTO dto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         log.info("Recebida requisição para criar novo pedido");
-        OrderResponseDTO created = orderService.createOrder(dto);
-        return ResponseEntity.created(URI.create("/api/orders/" + created.getId())).body(created);
+        return idempotencyService.execute("create-order", userId, idempotencyKey, dto, OrderResponseDTO.class, () -> {
+            OrderResponseDTO created = orderService.createOrder(dto);
+            return ResponseEntity.created(URI.create("/api/orders/" + created.getId())).body(created);
+        });
     }
 
     @GetMapping("/ok")
@@ -44,17 +69,71 @@ public class OrderController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<OrderResponseDTO>> getAll(final Pageable pageable) {
+    public ResponseEntity<Page<?>> getAll(
+            @RequestParam(required = false) Double minDistanceKm,
+            @RequestParam(required = false) Double maxDistanceKm,
+            @RequestParam(required = false) String fields,
+            final Pageable pageable) {
         log.info("Recebida requisição para listar todos os pedidos");
-        return ResponseEntity.ok(orderService.getAllOrders(pageable));
+        if (fields != null) {
+            return ResponseEntity.ok(orderService.getAllOrders(minDistanceKm, maxDistanceKm, pageable,
+                    sparseOrderProjector.projection(fields)));
+        }
+        return ResponseEntity.ok(orderService.getAllOrders(minDistanceKm, maxDistanceKm, pageable));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<MultiGetItemDTO>> getByIds(@RequestParam List<Long> ids) {
+        log.info("Recebida requisição para buscar {} pedidos por ID", ids.size());
+        return ResponseEntity.ok(orderService.getOrdersByIds(ids));
+    }
+
+    @PostMapping("/_mget")
+    public ResponseEntity<List<MultiGetItemDTO>> multiGet(@Valid @RequestBody MultiGetRequestDTO dto) {
+        log.info("Recebida requisição para buscar {} pedidos por ID", dto.getIds().size());
+        return ResponseEntity.ok(orderService.getOrdersByIds(dto.getIds()));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<OrderResponseDTO>> search(@RequestParam("q") String query, final Pageable pageable) {
+        log.info("Recebida requisição de busca de pedidos");
+        return ResponseEntity.ok(orderService.searchOrders(query, pageable));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDTO> getStats() {
+        log.info("Recebida requisição de estatísticas de pedidos");
+        return ResponseEntity.ok(orderStatsService.getStats());
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyOrderDTO>> getNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") double radius,
+            @RequestParam(defaultValue = "PENDING") OrderStatus status,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("Recebida requisição para buscar pedidos próximos de ({}, {})", lat, lon);
+        return ResponseEntity.ok(orderService.findNearbyOrders(lat, lon, radius, status, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponseDTO> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         log.info("Recebida requisição para buscar pedido ID {}", id);
+        if (fields != null) {
+            return ResponseEntity.ok(orderService.getOrderById(id, sparseOrderProjector.dtoProjection(fields)));
+        }
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(
+            @PathVariable Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Recebida requisição de stream de eventos do pedido ID {}", id);
+        return orderEventStreamService.subscribeToOrder(id, lastEventId, () -> orderService.getOrderById(id));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> update(@PathVariable Long id, @Valid @RequestBody UpdateOrderDTO dto) {
         log.info("Recebida requisição para atualizar pedido ID {}", id);
@@ -69,25 +148,79 @@ public class OrderController {
     }
 
     @GetMapping("/driver/{driverId}")
-    public ResponseEntity<List<OrderResponseDTO>> getByDriverId(@PathVariable Long driverId) {
+    public ResponseEntity<List<?>> getByDriverId(@PathVariable Long driverId, @RequestParam(required = false) String fields) {
         log.info("Recebida requisição para buscar pedidos do motorista ID {}", driverId);
+        if (fields != null) {
+            return ResponseEntity.ok(orderService.getOrdersByDriverId(driverId, sparseOrderProjector.projection(fields)));
+        }
         return ResponseEntity.ok(orderService.getOrdersByDriverId(driverId));
     }
 
     @GetMapping("/driver/{driverId}/paged")
-    public ResponseEntity<Page<OrderResponseDTO>> getByDriverIdPaged(
+    public ResponseEntity<Page<?>> getByDriverIdPaged(
             @PathVariable Long driverId,
+            @RequestParam(required = false) String fields,
             final Pageable pageable) {
         log.info("Recebida requisição para buscar pedidos paginados do motorista ID {}", driverId);
+        if (fields != null) {
+            return ResponseEntity.ok(orderService.getOrdersByDriverId(driverId, pageable, sparseOrderProjector.projection(fields)));
+        }
         return ResponseEntity.ok(orderService.getOrdersByDriverId(driverId, pageable));
     }
 
+    @GetMapping(path = "/driver/{driverId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDriverEvents(
+            @PathVariable Long driverId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Recebida requisição de stream de eventos do motorista ID {}", driverId);
+        return orderEventStreamService.subscribeToDriver(driverId, lastEventId, () -> orderService.getOrdersByDriverId(driverId));
+    }
+
+    @PutMapping("/driver/{driverId}/position")
+    public ResponseEntity<Void> updateDriverPosition(@PathVariable Long driverId, @RequestBody DriverPositionDTO dto) {
+        log.info("Recebida requisição para atualizar posição do motorista ID {}", driverId);
+        orderService.updateDriverPosition(driverId, dto);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/locations")
+    public ResponseEntity<Void> ingestLocations(@PathVariable Long id, @Valid @RequestBody LocationBatchDTO batch) {
+        // Chamado a cada poucos segundos por motorista: sem log por requisição
+        if (!orderLocationService.ingest(id, batch.getPoints())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/{id}/locations/latest")
+    public ResponseEntity<LocationIngestBuffer.LocationPoint> getLatestLocation(@PathVariable Long id) {
+        return ResponseEntity.of(orderLocationService.getLatest(id));
+    }
+
     @PutMapping(path = "/{id}/complete", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<OrderResponseDTO> complete(
             @PathVariable Long id,
             @RequestPart("data") @Valid CompleteOrderDTO completeOrderDTO,
-            @RequestPart("file") MultipartFile file) {
+            @RequestPart("file") MultipartFile file,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         log.info("Recebida requisição para finalizar pedido ID {}", id);
-        return ResponseEntity.ok(orderService.completeOrder(id, completeOrderDTO, file));
+        // Uma única leitura do arquivo: o mesmo hash identifica a requisição e é comparado com o ETag no upload.
+        // O arquivo entra no hash da requisição pelo conteúdo: outra foto com o mesmo nome e tamanho é outra requisição
+        ContentHash hash = contentHash(file);
+        return idempotencyService.execute("complete-order", userId, idempotencyKey,
+                () -> List.of(id, completeOrderDTO, String.valueOf(file.getOriginalFilename()), hash.getMd5()),
+                OrderResponseDTO.class,
+                () -> ResponseEntity.ok(orderService.completeOrder(id, completeOrderDTO, file, hash)));
+    }
+
+    private static ContentHash contentHash(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return ContentHash.of(in, SupabaseStorageService.RESUMABLE_CHUNK_SIZE);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Não foi possível ler o arquivo enviado.", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.service.order.dtos;
+
+import lombok.Data;
+
+@Data
+public class DriverPositionDTO {
+    private Double latitude;
+    private Double longitude;
+    private Boolean available;
+}
@@ -0,0 +1,12 @@
+package com.service.order.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LocationBatchDTO {
+    @NotEmpty
+    private List<LocationPointDTO> points;
+}
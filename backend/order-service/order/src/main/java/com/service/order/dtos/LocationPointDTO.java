@@ -0,0 +1,13 @@
+package com.service.order.dtos;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class LocationPointDTO {
+    private Double latitude;
+    private Double longitude;
+    // Momento da leitura no aparelho; se ausente, usa o horário de recebimento
+    private Instant recordedAt;
+}
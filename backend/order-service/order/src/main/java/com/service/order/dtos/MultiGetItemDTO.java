@@ -0,0 +1,14 @@
+package com.service.order.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MultiGetItemDTO {
+    private Long id;
+    private boolean found; // false quando o pedido não existe (order fica null)
+    private OrderResponseDTO order;
+}
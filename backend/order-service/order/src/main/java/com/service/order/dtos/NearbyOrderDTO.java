@@ -0,0 +1,13 @@
+package com.service.order.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyOrderDTO {
+    private OrderResponseDTO order;
+    private Double distanceKm;
+}
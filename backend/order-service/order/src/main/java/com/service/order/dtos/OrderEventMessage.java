@@ -0,0 +1,41 @@
+package com.service.order.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.service.order.enums.OrderLifecycleEventType;
+import com.service.order.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento de ciclo de vida do pedido publicado no tópico de eventos (schema v1).
+ * Vai como array CBOR posicional, sem nomes de campo: a ordem abaixo é o schema. Campos novos
+ * só entram no fim (consumidores v1 ignoram o excedente); qualquer outra mudança exige uma
+ * nova versão em OrderEventCodec.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"type", "orderId", "customerId", "driverId", "status", "occurredAt",
+        "originLatitude", "originLongitude", "destinationLatitude", "destinationLongitude",
+        "distanceKm", "description", "imageUrl", "eventId"})
+public class OrderEventMessage {
+    private OrderLifecycleEventType type;
+    private Long orderId;
+    private Long customerId;
+    private Long driverId;
+    private OrderStatus status;
+    // Epoch em milissegundos
+    private Long occurredAt;
+    private Double originLatitude;
+    private Double originLongitude;
+    private Double destinationLatitude;
+    private Double destinationLongitude;
+    private Double distanceKm;
+    private String description;
+    private String imageUrl;
+    // Único por evento e mantido nas retentativas de envio: o consumidor descarta repetidos por ele
+    private String eventId;
+}
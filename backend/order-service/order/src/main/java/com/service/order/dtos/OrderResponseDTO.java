@@ -3,6 +3,8 @@ package com.service.order.dtos;
 import com.service.order.enums.OrderStatus;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class OrderResponseDTO {
     private Long id;
@@ -13,4 +15,8 @@ public class OrderResponseDTO {
     private AddressDTO destinationAddress;
     private String description;
     private String imageUrl;
+    private Double distanceKm;
+    private Integer estimatedDurationMinutes;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
 }
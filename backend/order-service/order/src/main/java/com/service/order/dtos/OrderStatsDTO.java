@@ -0,0 +1,17 @@
+package com.service.order.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatsDTO {
+    private Map<String, Long> byStatus;
+    private Map<Long, Long> byDriver;
+    private Map<String, Long> byCity;
+    private Map<String, Long> completionsByDay;
+}
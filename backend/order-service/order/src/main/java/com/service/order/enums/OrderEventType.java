@@ -0,0 +1,8 @@
+package com.service.order.enums;
+
+public enum OrderEventType {
+    CREATED,
+    UPDATED,
+    COMPLETED,
+    DELETED
+}
@@ -0,0 +1,11 @@
+package com.service.order.enums;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+// Serializado pela posição: novos tipos só podem entrar no fim
+@JsonFormat(shape = JsonFormat.Shape.NUMBER)
+public enum OrderLifecycleEventType {
+    CREATED,    // pedido criado
+    ASSIGNED,   // motorista atribuído
+    DELIVERED   // pedido entregue (status DELIVERIED)
+}
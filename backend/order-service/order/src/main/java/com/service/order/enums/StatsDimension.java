@@ -0,0 +1,8 @@
+package com.service.order.enums;
+
+public enum StatsDimension {
+    STATUS,        // chave: nome do status
+    DRIVER,        // chave: id do motorista
+    CITY,          // chave: cidade de origem
+    COMPLETED_DAY  // chave: data (yyyy-MM-dd) em que o pedido foi finalizado
+}
@@ -0,0 +1,26 @@
+package com.service.order.events;
+
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.enums.OrderEventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento interno publicado pelo OrderService a cada escrita em um pedido.
+ * Carrega o estado anterior (nulo na criação) e o estado atual (no DELETED,
+ * o último estado conhecido), permitindo que índices e agregados em memória
+ * se mantenham sincronizados sem consultar o banco novamente.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderChangedEvent {
+    private final OrderEventType type;
+    private final OrderResponseDTO previous;
+    private final OrderResponseDTO current;
+
+    public Long getOrderId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+}
@@ -0,0 +1,77 @@
+package com.service.order.events;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.service.order.dtos.OrderEventMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificação binária dos eventos de ciclo de vida do pedido. Um evento é um array CBOR
+ * posicional (OrderEventMessage); um lote é um array desses arrays, compactado com gzip.
+ * O consumidor escolhe o decodificador pelas propriedades da mensagem (eventType,
+ * schemaVersion e contentEncoding).
+ */
+public class OrderEventCodec {
+
+    public static final int SCHEMA_VERSION = 1;
+    public static final String CONTENT_TYPE = "application/cbor";
+    public static final String BATCH_CONTENT_ENCODING = "gzip";
+
+    private static final TypeReference<List<OrderEventMessage>> BATCH = new TypeReference<>() {
+    };
+
+    // Campos acrescentados no fim do array por versões compatíveis são ignorados
+    private final ObjectMapper mapper = new ObjectMapper(new CBORFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public byte[] encode(OrderEventMessage event) {
+        try {
+            return mapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao codificar evento do pedido " + event.getOrderId(), e);
+        }
+    }
+
+    public OrderEventMessage decode(byte[] payload, int schemaVersion) {
+        checkVersion(schemaVersion);
+        try {
+            return mapper.readValue(payload, OrderEventMessage.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao decodificar evento de pedido", e);
+        }
+    }
+
+    public byte[] encodeBatch(List<OrderEventMessage> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, events);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao codificar lote de " + events.size() + " eventos de pedido", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public List<OrderEventMessage> decodeBatch(byte[] payload, int schemaVersion) {
+        checkVersion(schemaVersion);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return mapper.readValue(gzip, BATCH);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao decodificar lote de eventos de pedido", e);
+        }
+    }
+
+    private static void checkVersion(int schemaVersion) {
+        if (schemaVersion != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Versão de schema de evento não suportada: " + schemaVersion);
+        }
+    }
+}
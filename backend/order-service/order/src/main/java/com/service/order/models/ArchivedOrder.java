@@ -0,0 +1,43 @@
+package com.service.order.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pedido entregue retirado da tabela orders pelo OrderArchiveService. O pedido completo
+ * fica em payload (JSON compactado com gzip); as colunas soltas servem só para consulta
+ * e expurgo por mês de finalização.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_month", columnList = "archive_month")
+})
+public class ArchivedOrder {
+
+    // Mesmo id do pedido original
+    @Id
+    private Long id;
+
+    private Long customerId;
+
+    private Long driverId;
+
+    private LocalDateTime completedAt;
+
+    // Mês de finalização no formato yyyy-MM
+    @Column(length = 7)
+    private String archiveMonth;
+
+    private LocalDateTime archivedAt;
+
+    private byte[] payload;
+}
@@ -0,0 +1,48 @@
+package com.service.order.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado da primeira execução de uma requisição com Idempotency-Key. Enquanto
+ * completed é false, a requisição original ainda está em andamento (em alguma instância).
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // Operação + usuário + chave enviada pelo cliente
+    @Id
+    @Column(length = 400)
+    private String idempotencyKey;
+
+    // SHA-256 do corpo da requisição, para detectar a mesma chave com outro conteúdo
+    @Column(length = 64)
+    private String requestHash;
+
+    private boolean completed;
+
+    private Integer statusCode;
+
+    private String location;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    // Até quando a instância que reservou a chave responde por ela; depois disso, se a execução
+    // não terminou, outra instância pode assumir
+    private LocalDateTime leaseUntil;
+}
@@ -7,17 +7,23 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Seleção dos pedidos entregues que já podem ir para o arquivo
+        @Index(name = "idx_orders_status_completed_at", columnList = "status, completed_at")
+})
 public class Order {
 
+    // Contém o bucket de particionamento (ver ShardKeys)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedOrderId
     private Long id;
 
     private Long customerId;
@@ -55,4 +61,17 @@ public class Order {
     private String description;
 
     private String imageUrl;
+
+    // Distância em linha reta entre origem e destino (km) e duração estimada (min)
+    private Double distanceKm;
+
+    private Integer estimatedDurationMinutes;
+
+    // true quando origem ou destino não têm coordenadas e a rota não pode ser estimada
+    private Boolean routeUnavailable;
+
+    private LocalDateTime createdAt;
+
+    // Preenchido quando o pedido passa para DELIVERIED
+    private LocalDateTime completedAt;
 }
@@ -0,0 +1,37 @@
+package com.service.order.models;
+
+import com.service.order.utils.ShardKeys;
+
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Gera ids de pedido com o bucket do cliente embutido (ShardKeys.orderId). A parte
+ * sequencial vem de order_id_seq no shard onde o pedido é gravado; cada shard usa uma
+ * classe de resto própria (INCREMENT BY ShardKeys.MAX_SHARDS), então dois shards nunca geram
+ * o mesmo número, mesmo depois de um bucket mudar de shard.
+ * <p>
+ * A sequência é criada e ajustada pelo ShardSchemaInitializer.
+ */
+public class OrderIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String SEQUENCE = "order_id_seq";
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Number sequence = (Number) session.createNativeQuery("SELECT nextval('" + SEQUENCE + "')")
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .getSingleResult();
+        return ShardKeys.orderId(sequence.longValue(), ShardKeys.bucketForCustomer(((Order) owner).getCustomerId()));
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
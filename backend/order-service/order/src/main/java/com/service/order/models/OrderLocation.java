@@ -0,0 +1,40 @@
+package com.service.order.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Histórico de posições do motorista durante um pedido. Gravado em lotes pelo
+ * OrderLocationService via JDBC; a entidade existe para o Hibernate criar a tabela.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "order_locations", indexes = {
+        @Index(name = "idx_order_locations_order_recorded_at", columnList = "order_id, recorded_at")
+})
+public class OrderLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long orderId;
+
+    private Long driverId;
+
+    private double latitude;
+
+    private double longitude;
+
+    private Instant recordedAt;
+
+    private Instant receivedAt;
+}
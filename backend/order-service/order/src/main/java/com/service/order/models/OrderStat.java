@@ -0,0 +1,31 @@
+package com.service.order.models;
+
+import com.service.order.enums.StatsDimension;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Contador agregado de pedidos por dimensão (status, motorista, cidade, dia de finalização).
+ * Atualizado por incrementos do OrderStatsService, nunca recalculado a partir de orders.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "order_stats")
+@IdClass(OrderStatId.class)
+public class OrderStat {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private StatsDimension dimension;
+
+    @Id
+    private String dimensionKey;
+
+    private long total;
+}
@@ -0,0 +1,16 @@
+package com.service.order.models;
+
+import com.service.order.enums.StatsDimension;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatId implements Serializable {
+    private StatsDimension dimension;
+    private String dimensionKey;
+}
@@ -0,0 +1,17 @@
+package com.service.order.models;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id de pedido gerado pelo OrderIdGenerator (sequência do shard + bucket do cliente).
+ */
+@IdGeneratorType(OrderIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedOrderId {
+}
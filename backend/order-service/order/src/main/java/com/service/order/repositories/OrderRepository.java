@@ -1,14 +1,61 @@
 package com.service.order.repositories;
 
+import com.service.order.enums.OrderStatus;
 import com.service.order.models.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByDriverId(Long driverId);
     Page<Order> findByDriverId(Long driverId, Pageable pageable);
+    List<Order> findByStatusNot(OrderStatus status);
+    List<Order> findByStatusAndDriverIdIsNull(OrderStatus status);
+    // Pedidos ainda sem estimativa de rota e não marcados como sem coordenadas, em lotes por id
+    @Query("select o from Order o where o.distanceKm is null and o.routeUnavailable is null and o.id > :afterId order by o.id")
+    List<Order> findRouteEstimatePending(@Param("afterId") Long afterId, Pageable pageable);
+    Page<Order> findByDistanceKmBetween(Double minDistanceKm, Double maxDistanceKm, Pageable pageable);
+
+    // Pedidos a arquivar, em lotes por id
+    @Query("select o from Order o where o.status = :status and o.completedAt < :completedBefore and o.id > :afterId order by o.id")
+    List<Order> findArchivable(@Param("status") OrderStatus status, @Param("completedBefore") LocalDateTime completedBefore,
+                               @Param("afterId") Long afterId, Pageable pageable);
+
+    // Pedidos entregues antes de completedAt existir recebem a data atual como aproximação
+    @Query("select o.id from Order o where o.status = :status and o.completedAt is null")
+    List<Long> findIdsMissingCompletedAt(@Param("status") OrderStatus status);
+
+    @Modifying
+    @Query("update Order o set o.completedAt = :now where o.id in :ids and o.completedAt is null")
+    int fillMissingCompletedAt(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    // search_vector e f_unaccent são criados por db/order-search.sql
+    @Query(value = """
+            SELECT o.* FROM orders o
+            WHERE o.search_vector @@ websearch_to_tsquery('portuguese', f_unaccent(:query))
+            ORDER BY ts_rank_cd(o.search_vector, websearch_to_tsquery('portuguese', f_unaccent(:query))) DESC, o.id DESC
+            """,
+            countQuery = """
+            SELECT count(*) FROM orders o
+            WHERE o.search_vector @@ websearch_to_tsquery('portuguese', f_unaccent(:query))
+            """,
+            nativeQuery = true)
+    Page<Order> search(@Param("query") String query, Pageable pageable);
+
+    // Contagens usadas só para popular order_stats na primeira subida
+    @Query("select o.status, count(o) from Order o group by o.status")
+    List<Object[]> countByStatus();
+
+    @Query("select o.driverId, count(o) from Order o where o.driverId is not null group by o.driverId")
+    List<Object[]> countByDriver();
+
+    @Query("select o.originAddress.city, count(o) from Order o where o.originAddress.city is not null group by o.originAddress.city")
+    List<Object[]> countByOriginCity();
 }
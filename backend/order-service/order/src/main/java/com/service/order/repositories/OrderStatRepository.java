@@ -0,0 +1,10 @@
+package com.service.order.repositories;
+
+import com.service.order.models.OrderStat;
+import com.service.order.models.OrderStatId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderStatRepository extends JpaRepository<OrderStat, OrderStatId> {
+}
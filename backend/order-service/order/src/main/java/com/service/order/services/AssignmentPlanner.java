@@ -0,0 +1,164 @@
+package com.service.order.services;
+
+import com.service.order.utils.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Heurística gulosa de atribuição pedido -> motorista baseada em grade espacial.
+ * <p>
+ * Os motoristas são distribuídos em células; cada pedido procura o motorista livre
+ * mais próximo nos anéis de células ao seu redor. Os pedidos são agrupados em
+ * regiões (células maiores) processadas em paralelo num ForkJoinPool; a reserva
+ * de motoristas é atômica, então regiões vizinhas nunca atribuem o mesmo motorista.
+ */
+public class AssignmentPlanner {
+
+    public record OrderPoint(Long orderId, double latitude, double longitude) {
+    }
+
+    public record DriverPoint(Long driverId, double latitude, double longitude) {
+    }
+
+    public record Assignment(Long orderId, Long driverId, double pickupDistanceKm) {
+    }
+
+    private final double cellSizeDegrees;
+    private final double regionSizeDegrees;
+    private final double maxPickupKm;
+
+    public AssignmentPlanner(double cellSizeDegrees, double regionSizeDegrees, double maxPickupKm) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.regionSizeDegrees = regionSizeDegrees;
+        this.maxPickupKm = maxPickupKm;
+    }
+
+    public List<Assignment> plan(List<OrderPoint> orders, List<DriverPoint> drivers, ForkJoinPool pool) {
+        if (orders.isEmpty() || drivers.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<DriverPoint>> driverCells = new HashMap<>();
+        for (DriverPoint driver : drivers) {
+            driverCells.computeIfAbsent(cellKey(driver.latitude(), driver.longitude(), cellSizeDegrees),
+                    k -> new ArrayList<>()).add(driver);
+        }
+
+        Map<Long, List<OrderPoint>> regions = new HashMap<>();
+        for (OrderPoint order : orders) {
+            regions.computeIfAbsent(cellKey(order.latitude(), order.longitude(), regionSizeDegrees),
+                    k -> new ArrayList<>()).add(order);
+        }
+
+        Map<Long, Long> claimedDrivers = new ConcurrentHashMap<>();
+        List<List<OrderPoint>> regionList = new ArrayList<>(regions.values());
+        return pool.invoke(new RegionTask(regionList, 0, regionList.size(), driverCells, claimedDrivers));
+    }
+
+    private class RegionTask extends RecursiveTask<List<Assignment>> {
+
+        private final List<List<OrderPoint>> regions;
+        private final int from;
+        private final int to;
+        private final Map<Long, List<DriverPoint>> driverCells;
+        private final Map<Long, Long> claimedDrivers;
+
+        RegionTask(List<List<OrderPoint>> regions, int from, int to,
+                   Map<Long, List<DriverPoint>> driverCells, Map<Long, Long> claimedDrivers) {
+            this.regions = regions;
+            this.from = from;
+            this.to = to;
+            this.driverCells = driverCells;
+            this.claimedDrivers = claimedDrivers;
+        }
+
+        @Override
+        protected List<Assignment> compute() {
+            if (to - from == 1) {
+                return assignRegion(regions.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            RegionTask left = new RegionTask(regions, from, middle, driverCells, claimedDrivers);
+            RegionTask right = new RegionTask(regions, middle, to, driverCells, claimedDrivers);
+            left.fork();
+            List<Assignment> result = new ArrayList<>(right.compute());
+            result.addAll(left.join());
+            return result;
+        }
+
+        private List<Assignment> assignRegion(List<OrderPoint> orders) {
+            List<Assignment> result = new ArrayList<>();
+            int maxRing = (int) Math.ceil(maxPickupKm / (GeoUtils.KM_PER_DEGREE * cellSizeDegrees)) + 1;
+
+            for (OrderPoint order : orders) {
+                int baseLat = cellIndex(order.latitude(), cellSizeDegrees);
+                int baseLon = cellIndex(order.longitude(), cellSizeDegrees);
+                List<Candidate> candidates = new ArrayList<>();
+                int lastRing = maxRing;
+
+                for (int ring = 0; ring <= lastRing; ring++) {
+                    collectRing(order, baseLat, baseLon, ring, candidates);
+                    // Um motorista no anel seguinte ainda pode estar mais perto que um do anel atual
+                    if (!candidates.isEmpty() && lastRing == maxRing) {
+                        lastRing = Math.min(maxRing, ring + 1);
+                    }
+                }
+
+                candidates.sort(Comparator.comparingDouble(Candidate::distanceKm));
+                for (Candidate candidate : candidates) {
+                    if (claimedDrivers.putIfAbsent(candidate.driver().driverId(), order.orderId()) == null) {
+                        result.add(new Assignment(order.orderId(), candidate.driver().driverId(), candidate.distanceKm()));
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void collectRing(OrderPoint order, int baseLat, int baseLon, int ring, List<Candidate> candidates) {
+            for (int i = baseLat - ring; i <= baseLat + ring; i++) {
+                for (int j = baseLon - ring; j <= baseLon + ring; j++) {
+                    if (Math.max(Math.abs(i - baseLat), Math.abs(j - baseLon)) != ring) {
+                        continue;
+                    }
+                    List<DriverPoint> cell = driverCells.get(cellKey(i, j));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (DriverPoint driver : cell) {
+                        if (claimedDrivers.containsKey(driver.driverId())) {
+                            continue;
+                        }
+                        double distance = GeoUtils.haversineKm(order.latitude(), order.longitude(),
+                                driver.latitude(), driver.longitude());
+                        if (distance <= maxPickupKm) {
+                            candidates.add(new Candidate(driver, distance));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private record Candidate(DriverPoint driver, double distanceKm) {
+    }
+
+    private static int cellIndex(double degrees, double size) {
+        return (int) Math.floor(degrees / size);
+    }
+
+    private static long cellKey(double latitude, double longitude, double size) {
+        return cellKey(cellIndex(latitude, size), cellIndex(longitude, size));
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+}
@@ -0,0 +1,59 @@
+package com.service.order.services;
+
+import com.service.order.utils.GeoUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Última posição conhecida e disponibilidade de cada motorista, mantidas em memória.
+ */
+@Slf4j
+@Service
+public class DriverLocationStore {
+
+    private final Map<Long, DriverPosition> positions = new ConcurrentHashMap<>();
+
+    public record DriverPosition(Long driverId, double latitude, double longitude, boolean available, Instant updatedAt) {
+    }
+
+    public DriverPosition update(Long driverId, double latitude, double longitude, Boolean available) {
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Coordenadas inválidas para o motorista " + driverId);
+        }
+        return positions.compute(driverId, (id, previous) -> new DriverPosition(
+                id,
+                latitude,
+                longitude,
+                available != null ? available : previous == null || previous.available(),
+                Instant.now()));
+    }
+
+    public void markUnavailable(Long driverId) {
+        positions.computeIfPresent(driverId, (id, previous) -> new DriverPosition(
+                id, previous.latitude(), previous.longitude(), false, previous.updatedAt()));
+    }
+
+    public DriverPosition get(Long driverId) {
+        return positions.get(driverId);
+    }
+
+    /**
+     * Motoristas disponíveis cuja posição foi atualizada dentro da janela informada.
+     */
+    public List<DriverPosition> availableDrivers(Duration maxAge) {
+        Instant cutoff = Instant.now().minus(maxAge);
+        return positions.values().stream()
+                .filter(DriverPosition::available)
+                .filter(position -> position.updatedAt().isAfter(cutoff))
+                .collect(Collectors.toList());
+    }
+}
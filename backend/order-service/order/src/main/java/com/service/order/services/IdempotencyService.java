@@ -0,0 +1,351 @@
+package com.service.order.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.order.models.IdempotencyRecord;
+import com.service.order.repositories.IdempotencyRecordRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Tratamento do header Idempotency-Key: a primeira requisição com uma chave é executada
+ * e o resultado é guardado (tabela idempotency_keys + cache em memória) até expirar;
+ * repetições recebem a mesma resposta sem executar a operação de novo.
+ * <p>
+ * Repetições simultâneas na mesma instância aguardam a execução em andamento. Entre
+ * instâncias, a chave é reservada no banco antes da execução (INSERT ... ON CONFLICT) com
+ * um prazo curto (lease_until), e a outra instância aguarda o resultado aparecer na tabela.
+ * Enquanto a operação roda, renewLeases renova o prazo (uploads longos passam do lease); se ele
+ * vencer sem resultado (a instância caiu no meio), quem estiver aguardando assume a chave e
+ * executa a operação.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys (idempotency_key, request_hash, completed, created_at, expires_at, lease_until)
+            VALUES (?, ?, false, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """;
+    private static final String TAKE_OVER_SQL = """
+            UPDATE idempotency_keys SET lease_until = ?
+            WHERE idempotency_key = ? AND completed = false AND (lease_until IS NULL OR lease_until < ?)
+            """;
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at < ?";
+    private static final String COMPLETE_SQL = """
+            UPDATE idempotency_keys SET completed = true, status_code = ?, location = ?, response_body = ?
+            WHERE idempotency_key = ?
+            """;
+    private static final String RENEW_SQL =
+            "UPDATE idempotency_keys SET lease_until = ? WHERE idempotency_key = ? AND completed = false";
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND completed = false";
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lease;
+
+    private record StoredResponse(String requestHash, int statusCode, String location, String body, LocalDateTime expiresAt) {
+    }
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    // Chaves cuja operação está rodando nesta instância; o lease delas é renovado por renewLeases
+    private final Set<String> executing = ConcurrentHashMap.newKeySet();
+    private final Map<String, StoredResponse> memoryCache;
+    // Resultados que não puderam ser gravados na tabela; regravados por retryPendingCompletions
+    private final Map<String, StoredResponse> pendingCompletions = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${orders.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${orders.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                              @Value("${orders.idempotency.lease-ms:30000}") long leaseMs,
+                              @Value("${orders.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.memoryCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Executa action uma única vez por chave. Sem chave, apenas executa.
+     *
+     * @param operation   identifica a operação (ex.: "create-order"), para a mesma chave não colidir entre endpoints
+     * @param user        usuário da requisição (X-User-Id), pode ser null
+     * @param request     conteúdo da requisição; a mesma chave com outro conteúdo é rejeitada com 422
+     */
+    public <T> ResponseEntity<T> execute(String operation, String user, String idempotencyKey, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        return execute(operation, user, idempotencyKey, () -> request, responseType, action);
+    }
+
+    /**
+     * Como {@link #execute(String, String, String, Object, Class, Supplier)}, mas o conteúdo da
+     * requisição só é montado se houver Idempotency-Key (ex.: quando inclui o hash de um arquivo).
+     */
+    public <T> ResponseEntity<T> execute(String operation, String user, String idempotencyKey, Supplier<?> request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > 255) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key deve ter no máximo 255 caracteres.");
+        }
+
+        String key = operation + ":" + (user != null ? user : "-") + ":" + idempotencyKey;
+        String requestHash = hash(request.get());
+
+        StoredResponse cached = memoryCache.get(key);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            return replay(await(existing), requestHash, responseType);
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, key, now);
+            boolean claimed = jdbcTemplate.update(CLAIM_SQL, key, requestHash, now, now.plus(ttl), now.plus(lease)) == 1;
+            if (!claimed) {
+                Optional<StoredResponse> stored = awaitOtherInstance(key, requestHash);
+                if (stored.isPresent()) {
+                    execution.complete(stored.get());
+                    return replay(stored.get(), requestHash, responseType);
+                }
+                // O prazo da outra instância venceu e a chave passou para esta
+            }
+
+            ResponseEntity<T> response;
+            executing.add(key);
+            try {
+                response = action.get();
+            } catch (RuntimeException | Error e) {
+                // Falhas não são guardadas: a próxima tentativa com a mesma chave executa de novo
+                jdbcTemplate.update(RELEASE_SQL, key);
+                throw e;
+            } finally {
+                executing.remove(key);
+            }
+
+            String location = response.getHeaders().getLocation() != null ? response.getHeaders().getLocation().toString() : null;
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), location,
+                    toJson(response.getBody()), now.plus(ttl));
+            memoryCache.put(key, stored);
+            execution.complete(stored);
+            // A operação já aconteceu: uma falha ao gravar o resultado não pode virar erro para o cliente
+            try {
+                complete(key, stored);
+            } catch (DataAccessException e) {
+                log.warn("Falha ao gravar o resultado da Idempotency-Key {}; nova tentativa em segundo plano", key, e);
+                pendingCompletions.put(key, stored);
+            }
+            return response;
+        } catch (RuntimeException | Error e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} Idempotency-Keys expiradas removidas", deleted);
+        }
+    }
+
+    /**
+     * Renova o lease das chaves em execução nesta instância, para que outra instância não as assuma
+     * no meio de uma operação demorada. Roda bem abaixo de lease-ms (um terço, por padrão).
+     */
+    @Scheduled(fixedDelayString = "${orders.idempotency.lease-renew-ms:10000}")
+    public void renewLeases() {
+        for (String key : executing) {
+            try {
+                if (jdbcTemplate.update(RENEW_SQL, LocalDateTime.now().plus(lease), key) == 0 && executing.contains(key)) {
+                    log.warn("Idempotency-Key {} não está mais reservada por esta instância", key);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Falha ao renovar o lease da Idempotency-Key {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.completion-retry-ms:5000}")
+    public void retryPendingCompletions() {
+        pendingCompletions.forEach((key, stored) -> {
+            try {
+                complete(key, stored);
+                pendingCompletions.remove(key, stored);
+                log.info("Resultado da Idempotency-Key {} gravado na nova tentativa", key);
+            } catch (DataAccessException e) {
+                if (stored.expiresAt().isBefore(LocalDateTime.now())) {
+                    pendingCompletions.remove(key, stored);
+                }
+                log.warn("Nova falha ao gravar o resultado da Idempotency-Key {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void complete(String key, StoredResponse stored) {
+        jdbcTemplate.update(COMPLETE_SQL, stored.statusCode(), stored.location(), stored.body(), key);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> execution) {
+        try {
+            return execution.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            // A execução original falhou: repassa o mesmo erro
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Aguarda a outra instância gravar o resultado, no máximo até o prazo dela vencer (limitado
+     * por wait-timeout-ms). Vazio quando o prazo venceu e a chave foi assumida por esta instância.
+     */
+    private Optional<StoredResponse> awaitOtherInstance(String key, String requestHash) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<IdempotencyRecord> record = repository.findById(key);
+            if (record.isEmpty()) {
+                // A execução original falhou e liberou a chave
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A requisição original com esta Idempotency-Key falhou; envie novamente.");
+            }
+            IdempotencyRecord current = record.get();
+            if (current.isCompleted()) {
+                StoredResponse stored = new StoredResponse(current.getRequestHash(), current.getStatusCode(),
+                        current.getLocation(), current.getResponseBody(), current.getExpiresAt());
+                memoryCache.put(key, stored);
+                return Optional.of(stored);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (current.getLeaseUntil() == null || current.getLeaseUntil().isBefore(now)) {
+                if (!current.getRequestHash().equals(requestHash)) {
+                    throw differentRequest();
+                }
+                if (jdbcTemplate.update(TAKE_OVER_SQL, now.plus(lease), key, now) == 1) {
+                    log.warn("Idempotency-Key {} abandonada por outra instância; executando aqui", key);
+                    return Optional.empty();
+                }
+                // Outra instância assumiu antes; continua aguardando o resultado dela
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw inProgress();
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw differentRequest();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            headers.set(HttpHeaders.LOCATION, stored.location());
+        }
+        try {
+            T body = stored.body() != null ? objectMapper.readValue(stored.body(), responseType) : null;
+            return ResponseEntity.status(stored.statusCode()).headers(headers).body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta guardada para Idempotency-Key é inválida", e);
+        }
+    }
+
+    private static ResponseStatusException differentRequest() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key já utilizada com uma requisição diferente.");
+    }
+
+    private static ResponseStatusException inProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Requisição com esta Idempotency-Key ainda em processamento; tente novamente em instantes.");
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar resposta para Idempotency-Key", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Erro ao calcular hash da requisição", e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.service.order.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Recebe posições de motoristas: mantém a posição mais recente de cada pedido em memória
+ * (atualização por CAS, sem locks) e enfileira o histórico para uma thread que grava em lotes.
+ * <p>
+ * A fila é limitada a capacity pontos. Um lote que não cabe é recusado inteiro, e o
+ * chamador deve pedir ao cliente que reenvie mais tarde, em vez de acumular memória.
+ */
+@Slf4j
+public class LocationIngestBuffer implements AutoCloseable {
+
+    public record LocationPoint(Long orderId, Long driverId, double latitude, double longitude,
+                                Instant recordedAt, Instant receivedAt) {
+    }
+
+    private final Map<Long, AtomicReference<LocationPoint>> latestByOrder = new ConcurrentHashMap<>();
+    private final BlockingQueue<LocationPoint> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int batchSize;
+    private final Consumer<List<LocationPoint>> sink;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param sink grava um lote de pontos; chamado sempre pela mesma thread e não deve guardar a lista
+     */
+    public LocationIngestBuffer(int capacity, int batchSize, Consumer<List<LocationPoint>> sink) {
+        this.capacity = new Semaphore(capacity);
+        this.batchSize = batchSize;
+        this.sink = sink;
+        this.writer = new Thread(this::drain, "order-location-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enfileira os pontos e atualiza as posições mais recentes.
+     *
+     * @return false se não houver espaço na fila para o lote inteiro (nada é aplicado)
+     */
+    public boolean offer(List<LocationPoint> points) {
+        if (points.isEmpty()) {
+            return true;
+        }
+        if (!running || !capacity.tryAcquire(points.size())) {
+            rejected.add(points.size());
+            return false;
+        }
+        queue.addAll(points);
+        accepted.add(points.size());
+        for (LocationPoint point : points) {
+            updateLatest(point);
+        }
+        return true;
+    }
+
+    public LocationPoint latest(Long orderId) {
+        AtomicReference<LocationPoint> latest = latestByOrder.get(orderId);
+        return latest != null ? latest.get() : null;
+    }
+
+    public void forget(Long orderId) {
+        latestByOrder.remove(orderId);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Para de aceitar pontos e aguarda a gravação do que já está na fila.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void updateLatest(LocationPoint point) {
+        AtomicReference<LocationPoint> latest = latestByOrder.get(point.orderId());
+        if (latest == null) {
+            latest = latestByOrder.computeIfAbsent(point.orderId(), id -> new AtomicReference<>());
+        }
+        // Pontos podem chegar fora de ordem (lotes reenviados); vale o de leitura mais recente
+        latest.accumulateAndGet(point, (current, candidate) ->
+                current == null || candidate.recordedAt().isAfter(current.recordedAt()) ? candidate : current);
+    }
+
+    private void drain() {
+        List<LocationPoint> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            LocationPoint first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<LocationPoint> batch) {
+        try {
+            sink.accept(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            // O histórico é best-effort: a posição mais recente já está em memória
+            dropped.add(batch.size());
+            log.warn("Falha ao gravar {} posições de motoristas: {}", batch.size(), e.getMessage());
+        } finally {
+            capacity.release(batch.size());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.service.order.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.order.enums.OrderStatus;
+import com.service.order.models.ArchivedOrder;
+import com.service.order.models.Order;
+import com.service.order.repositories.ArchivedOrderRepository;
+import com.service.order.repositories.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Move pedidos entregues há mais de orders.archive.retention-days da tabela orders para
+ * orders_archive (JSON compactado), mantendo orders restrita aos pedidos ativos e recentes.
+ * Pedidos arquivados continuam acessíveis por id.
+ * <p>
+ * Com pedidos particionados, cada shard arquiva os próprios pedidos na sua orders_archive;
+ * as buscas em findArchived rodam no shard definido por quem chama (OrderShardRouter). As
+ * escritas passam por OrderShardRouter.writeOnShard e ignoram os pedidos de buckets em
+ * migração ou que já não moram no shard (cópias parciais do rebalanceamento).
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderArchiveService {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderShardRouter orderShardRouter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               OrderShardRouter orderShardRouter,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${orders.archive.enabled:true}") boolean enabled,
+                               @Value("${orders.archive.retention-days:90}") long retentionDays,
+                               @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderShardRouter = orderShardRouter;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingCompletedAt() {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderShardRouter.onAllShards(() -> orderShardRouter.writeOnShard(orderShardRouter.currentShard(),
+                writable -> transactionTemplate.execute(status -> {
+                    List<Long> ids = orderRepository.findIdsMissingCompletedAt(OrderStatus.DELIVERIED).stream()
+                            .filter(writable)
+                            .collect(Collectors.toList());
+                    return ids.isEmpty() ? 0 : orderRepository.fillMissingCompletedAt(ids, now);
+                })))
+                .stream().mapToInt(Integer::intValue).sum();
+        if (updated > 0) {
+            log.info("Data de finalização preenchida para {} pedidos entregues antigos", updated);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${orders.archive.initial-delay-ms:60000}",
+               fixedDelayString = "${orders.archive.interval-ms:3600000}")
+    public void archiveDeliveredOrders() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = orderShardRouter.onAllShards(() -> archiveShard(orderShardRouter.currentShard(), cutoff))
+                .stream().mapToInt(Integer::intValue).sum();
+
+        if (total > 0) {
+            log.info("{} pedidos entregues antes de {} movidos para orders_archive", total, cutoff);
+        }
+    }
+
+    public Optional<Order> findArchived(Long id) {
+        return archivedOrderRepository.findById(id).map(this::decode);
+    }
+
+    public List<Order> findArchived(Collection<Long> ids) {
+        return archivedOrderRepository.findAllById(ids).stream()
+                .map(this::decode)
+                .collect(Collectors.toList());
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private int archiveShard(int shard, LocalDateTime cutoff) {
+        AtomicInteger total = new AtomicInteger();
+        long afterId = Long.MIN_VALUE;
+        List<Order> batch;
+        do {
+            long from = afterId;
+            // Uma transação por lote: se algo falhar, só o lote atual volta para orders
+            batch = orderShardRouter.writeOnShard(shard, writable -> transactionTemplate.execute(status -> {
+                List<Order> orders = orderRepository.findArchivable(OrderStatus.DELIVERIED, cutoff, from, PageRequest.of(0, batchSize));
+                total.addAndGet(archiveBatch(orders.stream()
+                        .filter(order -> writable.test(order.getId()))
+                        .collect(Collectors.toList())));
+                return orders;
+            }));
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+        return total.get();
+    }
+
+    private int archiveBatch(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> archived = orders.stream()
+                .map(order -> new ArchivedOrder(order.getId(), order.getCustomerId(), order.getDriverId(),
+                        order.getCompletedAt(), order.getCompletedAt().format(MONTH), now, encode(order)))
+                .collect(Collectors.toList());
+        archivedOrderRepository.saveAll(archived);
+        orderRepository.deleteAllInBatch(orders);
+        return orders.size();
+    }
+
+    private byte[] encode(Order order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao compactar pedido " + order.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Order decode(ArchivedOrder archived) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archived.getPayload()))) {
+            return objectMapper.readValue(gzip, Order.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler pedido arquivado " + archived.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.service.order.services;
+
+import com.service.order.enums.OrderStatus;
+import com.service.order.models.Order;
+import com.service.order.repositories.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de atribuição automática de motoristas. A cada tick carrega os pedidos
+ * PENDING sem motorista e os motoristas disponíveis, calcula as atribuições em
+ * lote com o AssignmentPlanner e persiste o resultado numa única transação.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderAssignmentEngine {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final OrderShardRouter orderShardRouter;
+    private final DriverLocationStore driverLocationStore;
+    private final AssignmentPlanner planner;
+    private final ForkJoinPool pool;
+    private final boolean enabled;
+    private final Duration driverMaxAge;
+
+    public OrderAssignmentEngine(OrderRepository orderRepository,
+                                 OrderService orderService,
+                                 OrderShardRouter orderShardRouter,
+                                 DriverLocationStore driverLocationStore,
+                                 @Value("${orders.assignment.enabled:false}") boolean enabled,
+                                 @Value("${orders.assignment.cell-size-degrees:0.02}") double cellSizeDegrees,
+                                 @Value("${orders.assignment.region-size-degrees:0.5}") double regionSizeDegrees,
+                                 @Value("${orders.assignment.max-pickup-km:10}") double maxPickupKm,
+                                 @Value("${orders.assignment.driver-max-age-seconds:120}") long driverMaxAgeSeconds,
+                                 @Value("${orders.assignment.parallelism:0}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.orderShardRouter = orderShardRouter;
+        this.driverLocationStore = driverLocationStore;
+        this.enabled = enabled;
+        this.planner = new AssignmentPlanner(cellSizeDegrees, regionSizeDegrees, maxPickupKm);
+        this.driverMaxAge = Duration.ofSeconds(driverMaxAgeSeconds);
+        // Sem o motor ligado não há por que manter as threads do pool
+        this.pool = enabled ? new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()) : null;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.assignment.tick-ms:5000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<AssignmentPlanner.OrderPoint> orders = orderShardRouter.onAllShards(() -> orderRepository.findByStatusAndDriverIdIsNull(OrderStatus.PENDING)
+                        .stream()
+                        .filter(order -> order.getOriginAddress() != null && orderShardRouter.ownsHere(order.getId()))
+                        .map(this::toOrderPoint)
+                        .collect(Collectors.toList()))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        List<AssignmentPlanner.DriverPoint> drivers = driverLocationStore.availableDrivers(driverMaxAge)
+                .stream()
+                .map(d -> new AssignmentPlanner.DriverPoint(d.driverId(), d.latitude(), d.longitude()))
+                .collect(Collectors.toList());
+
+        List<AssignmentPlanner.Assignment> assignments = planner.plan(orders, drivers, pool);
+        if (assignments.isEmpty()) {
+            return;
+        }
+
+        List<AssignmentPlanner.Assignment> applied = orderService.assignDrivers(assignments);
+        applied.forEach(a -> driverLocationStore.markUnavailable(a.driverId()));
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double averageDistance = applied.stream()
+                .mapToDouble(AssignmentPlanner.Assignment::pickupDistanceKm)
+                .average()
+                .orElse(0);
+        log.info("Tick de atribuição: {} pedidos, {} motoristas, {} atribuições em {} ms ({} atribuições/s, distância média de coleta {} km)",
+                orders.size(), drivers.size(), applied.size(),
+                String.format("%.1f", elapsedSeconds * 1000),
+                String.format("%.0f", applied.size() / elapsedSeconds),
+                String.format("%.2f", averageDistance));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private AssignmentPlanner.OrderPoint toOrderPoint(Order order) {
+        return new AssignmentPlanner.OrderPoint(order.getId(),
+                order.getOriginAddress().getLatitude(),
+                order.getOriginAddress().getLongitude());
+    }
+}
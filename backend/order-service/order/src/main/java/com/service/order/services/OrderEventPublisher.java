@@ -0,0 +1,220 @@
+package com.service.order.services;
+
+import com.azure.messaging.servicebus.ServiceBusMessage;
+import com.azure.messaging.servicebus.ServiceBusSenderClient;
+import com.service.order.dtos.AddressDTO;
+import com.service.order.dtos.OrderEventMessage;
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.enums.OrderEventType;
+import com.service.order.enums.OrderLifecycleEventType;
+import com.service.order.enums.OrderStatus;
+import com.service.order.events.OrderChangedEvent;
+import com.service.order.events.OrderEventCodec;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica os eventos de ciclo de vida dos pedidos (criado, motorista atribuído, entregue) no
+ * tópico azure.servicebus.events-topic-name, codificados pelo OrderEventCodec.
+ * <p>
+ * Os eventos entram numa fila em memória e são enviados a cada orders.event-publishing.flush-ms
+ * por uma thread própria (o envio é bloqueante e não pode segurar o agendador compartilhado):
+ * um evento sozinho vai como CBOR simples; vários viram uma única mensagem de lote compactada.
+ * Falhas de envio mantêm o lote na fila para o próximo ciclo, então um evento pode chegar mais
+ * de uma vez; o eventId permite ao consumidor descartar os repetidos.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Agenda o próprio envio: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderEventPublisher {
+
+    public static final String EVENT_TYPE_PROPERTY = "eventType";
+    public static final String SCHEMA_VERSION_PROPERTY = "schemaVersion";
+    public static final String CONTENT_ENCODING_PROPERTY = "contentEncoding";
+    public static final String EVENT_COUNT_PROPERTY = "eventCount";
+    public static final String BATCH_EVENT_TYPE = "BATCH";
+
+    private final ServiceBusSenderClient senderClient;
+    private final OrderEventCodec codec = new OrderEventCodec();
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ConcurrentLinkedDeque<OrderEventMessage> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final ScheduledExecutorService flusher;
+
+    public OrderEventPublisher(@Qualifier("orderEventsSenderClient") ServiceBusSenderClient senderClient,
+                               @Value("${orders.event-publishing.enabled:true}") boolean enabled,
+                               @Value("${orders.event-publishing.batch-size:100}") int batchSize,
+                               @Value("${orders.event-publishing.max-pending:100000}") int maxPending,
+                               @Value("${orders.event-publishing.flush-ms:200}") long flushMs) {
+        this.senderClient = senderClient;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.flusher = enabled
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "order-event-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        if (flusher != null) {
+            flusher.scheduleWithFixedDelay(this::flushSafely, flushMs, flushMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Depois do commit: eventos de escritas desfeitas não são publicados
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        OrderResponseDTO previous = event.getPrevious();
+        OrderResponseDTO current = event.getCurrent();
+        long now = System.currentTimeMillis();
+
+        if (event.getType() == OrderEventType.CREATED) {
+            enqueue(toMessage(OrderLifecycleEventType.CREATED, current, now));
+            return;
+        }
+        if (event.getType() == OrderEventType.DELETED || previous == null) {
+            return;
+        }
+        if (previous.getDriverId() == null && current.getDriverId() != null) {
+            enqueue(toMessage(OrderLifecycleEventType.ASSIGNED, current, now));
+        }
+        if (previous.getStatus() != OrderStatus.DELIVERIED && current.getStatus() == OrderStatus.DELIVERIED) {
+            enqueue(toMessage(OrderLifecycleEventType.DELIVERED, current, now));
+        }
+    }
+
+    /**
+     * Envia o que estiver na fila. Chamado pela thread do publicador e, no encerramento, depois
+     * que ela parou; nunca em paralelo.
+     */
+    public void flush() {
+        while (pendingCount.get() > 0) {
+            List<OrderEventMessage> batch = new ArrayList<>(Math.min(batchSize, pendingCount.get()));
+            OrderEventMessage event;
+            while (batch.size() < batchSize && (event = pending.pollFirst()) != null) {
+                batch.add(event);
+            }
+            pendingCount.addAndGet(-batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                senderClient.sendMessage(toServiceBusMessage(batch));
+            } catch (RuntimeException e) {
+                // Devolve o lote para o início da fila, na ordem original
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    pending.addFirst(batch.get(i));
+                }
+                pendingCount.addAndGet(batch.size());
+                log.warn("Falha ao publicar {} eventos de pedido, nova tentativa no próximo ciclo: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Envio de eventos de pedido não terminou a tempo no encerramento");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        flush();
+        if (pendingCount.get() > 0) {
+            log.warn("{} eventos de pedido não publicados no encerramento", pendingCount.get());
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    // Uma exceção fora do envio (ex.: na codificação) cancelaria as execuções seguintes
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Erro ao publicar eventos de pedido: {}", e.getMessage(), e);
+        }
+    }
+
+    private void enqueue(OrderEventMessage message) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            log.warn("Fila de eventos de pedido cheia ({}), evento {} do pedido {} descartado",
+                    maxPending, message.getType(), message.getOrderId());
+            return;
+        }
+        pending.addLast(message);
+    }
+
+    private ServiceBusMessage toServiceBusMessage(List<OrderEventMessage> batch) {
+        ServiceBusMessage message;
+        if (batch.size() == 1) {
+            message = new ServiceBusMessage(codec.encode(batch.get(0)));
+            message.getApplicationProperties().put(EVENT_TYPE_PROPERTY, batch.get(0).getType().name());
+        } else {
+            message = new ServiceBusMessage(codec.encodeBatch(batch));
+            message.getApplicationProperties().put(EVENT_TYPE_PROPERTY, BATCH_EVENT_TYPE);
+            message.getApplicationProperties().put(CONTENT_ENCODING_PROPERTY, OrderEventCodec.BATCH_CONTENT_ENCODING);
+        }
+        message.setContentType(OrderEventCodec.CONTENT_TYPE);
+        message.getApplicationProperties().put(SCHEMA_VERSION_PROPERTY, OrderEventCodec.SCHEMA_VERSION);
+        message.getApplicationProperties().put(EVENT_COUNT_PROPERTY, batch.size());
+        return message;
+    }
+
+    private static OrderEventMessage toMessage(OrderLifecycleEventType type, OrderResponseDTO order, long occurredAt) {
+        AddressDTO origin = order.getOriginAddress();
+        AddressDTO destination = order.getDestinationAddress();
+        return new OrderEventMessage(type, order.getId(), order.getCustomerId(), order.getDriverId(), order.getStatus(), occurredAt,
+                origin != null ? origin.getLatitude() : null,
+                origin != null ? origin.getLongitude() : null,
+                destination != null ? destination.getLatitude() : null,
+                destination != null ? destination.getLongitude() : null,
+                order.getDistanceKm(), order.getDescription(), order.getImageUrl(), UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,376 @@
+package com.service.order.services;
+
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.events.OrderChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Distribui as mudanças de pedidos para clientes conectados via Server-Sent Events.
+ * <p>
+ * As conexões usam o modo assíncrono do servlet (SseEmitter), então nenhuma thread
+ * fica presa por cliente ocioso. Os eventos recebem um id sequencial e ficam num
+ * buffer circular limitado, permitindo retomar o stream pelo header Last-Event-ID.
+ * O id leva a época da instância (epoca-sequencia): ids de outra instância ou de antes de
+ * um restart não são retomáveis e o cliente recebe um SNAPSHOT.
+ * <p>
+ * Cada conexão tem uma fila limitada (orders.events.subscriber-queue-size) esvaziada por uma
+ * virtual thread de envio; um cliente lento que deixa a fila encher é desconectado, sem
+ * atrasar os demais nem a requisição que alterou o pedido. O envio para o cliente é uma escrita
+ * bloqueante: com virtual threads um cliente travado (janela TCP cheia) prende só a própria
+ * thread, e um envio que passa de orders.events.send-timeout-ms desconecta o cliente.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderEventStreamService {
+
+    // Marca de heartbeat na fila de envio
+    private static final StreamEvent HEARTBEAT = new StreamEvent(-1, null, null, null, null, null);
+    // Eventos enviados por vez antes de devolver a thread; o restante da fila é reagendado
+    private static final int DRAIN_BATCH = 50;
+
+    private final long emitterTimeoutMs;
+    private final int replayBufferSize;
+    private final int subscriberQueueSize;
+    private final long sendTimeoutNanos;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+    // Também serializa o enfileiramento para os assinantes, que recebem os eventos em ordem
+    private final Deque<StreamEvent> replayBuffer = new ArrayDeque<>();
+    private final Map<Long, Set<Subscriber>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> driverSubscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-sse-sender-", 1).factory());
+    // Encerramento dos clientes descartados: completeWithError espera o envio em andamento terminar
+    private final ExecutorService closers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-sse-closer-", 1).factory());
+
+    public OrderEventStreamService(@Value("${orders.events.sse-timeout-ms:1800000}") long emitterTimeoutMs,
+                                   @Value("${orders.events.replay-buffer-size:1000}") int replayBufferSize,
+                                   @Value("${orders.events.subscriber-queue-size:100}") int subscriberQueueSize,
+                                   @Value("${orders.events.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    private record StreamEvent(long id, String name, Long orderId, Long driverId, Long previousDriverId, Object data) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Início do envio em andamento (0 quando nenhum) e a thread que o faz, vigiados por evictStalled
+        private volatile long sendingSince;
+        private volatile Thread sendingThread;
+        // Maior sequência já enfileirada; acessada só sob o lock de replayBuffer
+        private long lastSequence = -1;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        orderSubscribers.forEach((orderId, subscribers) -> subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT, subscribers)));
+        driverSubscribers.forEach((driverId, subscribers) -> subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT, subscribers)));
+    }
+
+    /**
+     * Desconecta os clientes com um envio travado há mais de orders.events.send-timeout-ms.
+     */
+    @Scheduled(fixedDelayString = "${orders.events.stall-check-ms:1000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        orderSubscribers.forEach((orderId, subscribers) -> subscribers.forEach(subscriber -> evictIfStalled(subscriber, subscribers, now)));
+        driverSubscribers.forEach((driverId, subscribers) -> subscribers.forEach(subscriber -> evictIfStalled(subscriber, subscribers, now)));
+    }
+
+    /**
+     * Abre o stream de um pedido. Sem Last-Event-ID (ou se ele não puder ser retomado) o cliente
+     * recebe primeiro um SNAPSHOT com o estado atual, seguido dos eventos ocorridos durante a carga.
+     */
+    public SseEmitter subscribeToOrder(Long orderId, String lastEventId, Supplier<OrderResponseDTO> snapshotLoader) {
+        long snapshotSequence = sequence.get();
+        OrderResponseDTO snapshot = snapshotLoader.get();
+        return subscribe(orderSubscribers, orderId, parseLastEventId(lastEventId),
+                event -> Objects.equals(event.orderId(), orderId),
+                new StreamEvent(snapshotSequence, "SNAPSHOT", orderId, snapshot.getDriverId(), null, snapshot));
+    }
+
+    /**
+     * Abre o stream dos pedidos de um motorista. Sem Last-Event-ID o stream começa nos próximos
+     * eventos; com um id que não pode ser retomado o cliente recebe um SNAPSHOT com os pedidos atuais.
+     */
+    public SseEmitter subscribeToDriver(Long driverId, String lastEventId, Supplier<List<OrderResponseDTO>> snapshotLoader) {
+        Long resumeFrom = parseLastEventId(lastEventId);
+        Predicate<StreamEvent> concernsDriver = event -> concernsDriver(event, driverId);
+        StreamEvent snapshot = null;
+        if (lastEventId != null && eventsSince(resumeFrom, concernsDriver) == null) {
+            long snapshotSequence = sequence.get();
+            snapshot = new StreamEvent(snapshotSequence, "SNAPSHOT", null, driverId, null, snapshotLoader.get());
+        }
+        return subscribe(driverSubscribers, driverId, resumeFrom, concernsDriver, snapshot);
+    }
+
+    // Depois do commit, para que mudanças desfeitas não cheguem aos clientes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderResponseDTO order = event.getCurrent();
+        Long previousDriverId = event.getPrevious() != null ? event.getPrevious().getDriverId() : null;
+        synchronized (replayBuffer) {
+            StreamEvent streamEvent = new StreamEvent(sequence.incrementAndGet(), event.getType().name(),
+                    event.getOrderId(), order.getDriverId(), previousDriverId, order);
+            replayBuffer.addLast(streamEvent);
+            if (replayBuffer.size() > replayBufferSize) {
+                replayBuffer.removeFirst();
+            }
+
+            broadcast(orderSubscribers.get(streamEvent.orderId()), streamEvent);
+            if (streamEvent.driverId() != null) {
+                broadcast(driverSubscribers.get(streamEvent.driverId()), streamEvent);
+            }
+            if (previousDriverId != null && !previousDriverId.equals(streamEvent.driverId())) {
+                broadcast(driverSubscribers.get(previousDriverId), streamEvent);
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return orderSubscribers.values().stream().mapToInt(Set::size).sum()
+                + driverSubscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        closers.shutdown();
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        driverSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    /**
+     * Registra o assinante e enfileira o replay (ou o SNAPSHOT seguido dos eventos posteriores a
+     * ele) sob o mesmo lock dos eventos novos, então nada é perdido nem enviado duas vezes.
+     */
+    private SseEmitter subscribe(Map<Long, Set<Subscriber>> subscribers, Long key, Long resumeFrom,
+                                 Predicate<StreamEvent> filter, StreamEvent snapshot) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, subscriberQueueSize);
+
+        Runnable cleanup = () -> {
+            subscriber.closed = true;
+            subscribers.computeIfPresent(key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        synchronized (replayBuffer) {
+            Set<Subscriber> set = subscribers.compute(key, (k, existing) -> {
+                Set<Subscriber> registered = existing != null ? existing : ConcurrentHashMap.newKeySet();
+                registered.add(subscriber);
+                return registered;
+            });
+            List<StreamEvent> missed = eventsSince(resumeFrom, filter);
+            if (missed == null && snapshot != null) {
+                offer(subscriber, snapshot, set);
+                missed = eventsSince(snapshot.id(), filter);
+            }
+            if (missed != null) {
+                missed.forEach(event -> offer(subscriber, event, set));
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * @return a sequência do Last-Event-ID, ou null quando ele não veio ou é de outra época
+     * (outra instância ou antes de um restart)
+     */
+    private Long parseLastEventId(String lastEventId) {
+        String prefix = epoch + "-";
+        if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return os eventos posteriores a lastEventId que atendem ao filtro, ou null quando
+     * não há Last-Event-ID ou ele já saiu do buffer de replay
+     */
+    private List<StreamEvent> eventsSince(Long lastEventId, Predicate<StreamEvent> filter) {
+        if (lastEventId == null) {
+            return null;
+        }
+        synchronized (replayBuffer) {
+            StreamEvent oldest = replayBuffer.peekFirst();
+            if (oldest != null && oldest.id() > lastEventId + 1) {
+                return null;
+            }
+            List<StreamEvent> result = new ArrayList<>();
+            for (StreamEvent event : replayBuffer) {
+                if (event.id() > lastEventId && filter.test(event)) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static boolean concernsDriver(StreamEvent event, Long driverId) {
+        return driverId.equals(event.driverId()) || driverId.equals(event.previousDriverId());
+    }
+
+    private void broadcast(Set<Subscriber> subscribers, StreamEvent event) {
+        if (subscribers == null) {
+            return;
+        }
+        subscribers.forEach(subscriber -> offer(subscriber, event, subscribers));
+    }
+
+    /**
+     * Enfileira sem bloquear. Eventos com sequência já enviada (ex.: cobertos pelo SNAPSHOT) são
+     * ignorados; fila cheia significa cliente lento, que é desconectado.
+     */
+    private void offer(Subscriber subscriber, StreamEvent event, Set<Subscriber> subscribers) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (event != HEARTBEAT) {
+            if (event.id() <= subscriber.lastSequence) {
+                return;
+            }
+            subscriber.lastSequence = event.id();
+        }
+        if (!subscriber.queue.offer(event)) {
+            log.debug("Cliente SSE lento desconectado ({} eventos pendentes)", subscriber.queue.size());
+            discard(subscriber, subscribers);
+            return;
+        }
+        scheduleDrain(subscriber, subscribers);
+    }
+
+    private void scheduleDrain(Subscriber subscriber, Set<Subscriber> subscribers) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber, subscribers));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+        }
+    }
+
+    // Uma thread por vez por assinante, preservando a ordem dos eventos
+    private void drain(Subscriber subscriber, Set<Subscriber> subscribers) {
+        subscriber.sendingThread = Thread.currentThread();
+        try {
+            StreamEvent event;
+            int sent = 0;
+            while (!subscriber.closed && sent < DRAIN_BATCH && (event = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                send(subscriber.emitter, event);
+                subscriber.sendingSince = 0;
+                sent++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Conexão SSE encerrada durante envio: {}", e.getMessage());
+            discard(subscriber, subscribers);
+        } finally {
+            subscriber.sendingSince = 0;
+            subscriber.sendingThread = null;
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber, subscribers);
+        }
+    }
+
+    private void send(SseEmitter emitter, StreamEvent event) throws IOException {
+        if (event == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return;
+        }
+        emitter.send(SseEmitter.event()
+                .id(epoch + "-" + event.id())
+                .name(event.name())
+                .data(event.data(), MediaType.APPLICATION_JSON));
+    }
+
+    private void evictIfStalled(Subscriber subscriber, Set<Subscriber> subscribers, long now) {
+        long since = subscriber.sendingSince;
+        if (since == 0 || now - since < sendTimeoutNanos || subscriber.closed) {
+            return;
+        }
+        log.debug("Cliente SSE desconectado: envio travado há {} ms", TimeUnit.NANOSECONDS.toMillis(now - since));
+        discard(subscriber, subscribers);
+        // Interrompe a escrita bloqueante para liberar a thread antes do timeout de escrita do Tomcat
+        Thread sender = subscriber.sendingThread;
+        if (sender != null) {
+            sender.interrupt();
+        }
+    }
+
+    private void discard(Subscriber subscriber, Set<Subscriber> subscribers) {
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+        // Fora da thread atual e das threads de envio: o emitter pode estar preso num envio para o cliente lento
+        try {
+            closers.execute(() -> subscriber.emitter.completeWithError(new IOException("Conexão SSE encerrada")));
+        } catch (RejectedExecutionException e) {
+            subscriber.emitter.completeWithError(new IOException("Conexão SSE encerrada"));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.service.order.services;
+
+import com.service.order.dtos.AddressDTO;
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.enums.OrderEventType;
+import com.service.order.enums.OrderStatus;
+import com.service.order.events.OrderChangedEvent;
+import com.service.order.repositories.OrderRepository;
+import com.service.order.utils.GeoUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Índice espacial em memória (grade regular de latitude/longitude) com a
+ * origem dos pedidos ainda não entregues. Mantido sincronizado pelos eventos
+ * do OrderService e reconstruído a partir do banco na inicialização.
+ */
+@Slf4j
+@Service
+public class OrderGeoIndex {
+
+    private final OrderRepository orderRepository;
+    private final OrderShardRouter orderShardRouter;
+    private final double cellSizeDegrees;
+    private final double maxRadiusKm;
+    // número de células numa volta completa de longitude, para tratar o antimeridiano
+    private final int lonCells;
+
+    // Trocada inteira na reconstrução; as escritas nela são serializadas por writeLock
+    private volatile Grid grid = new Grid();
+    private final Object writeLock = new Object();
+    // Eventos recebidos durante uma reconstrução, reaplicados na grade nova antes da troca
+    private List<OrderChangedEvent> pendingDuringRebuild;
+
+    public OrderGeoIndex(OrderRepository orderRepository,
+                         OrderShardRouter orderShardRouter,
+                         @Value("${orders.geo.cell-size-degrees:0.01}") double cellSizeDegrees,
+                         @Value("${orders.geo.max-radius-km:50}") double maxRadiusKm) {
+        this.orderRepository = orderRepository;
+        this.orderShardRouter = orderShardRouter;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.maxRadiusKm = maxRadiusKm;
+        this.lonCells = (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    public record GeoEntry(Long orderId, double latitude, double longitude, OrderStatus status) {
+    }
+
+    public record GeoHit(Long orderId, double distanceKm) {
+    }
+
+    private static final class Grid {
+        // célula da grade -> (id do pedido -> entrada)
+        final Map<Long, Map<Long, GeoEntry>> cells = new ConcurrentHashMap<>();
+        // id do pedido -> entrada atual, para remoção/realocação em O(1)
+        final Map<Long, GeoEntry> entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Monta uma grade nova a partir do banco e só então a coloca no lugar da atual, para que
+     * as buscas não vejam o índice vazio nem percam eventos que chegam durante a carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        Grid rebuilt = new Grid();
+        try {
+            List<List<GeoEntry>> shards = orderShardRouter.onAllShards(() -> orderRepository.findByStatusNot(OrderStatus.DELIVERIED)
+                    .stream()
+                    .filter(order -> order.getOriginAddress() != null && orderShardRouter.ownsHere(order.getId()))
+                    .map(order -> new GeoEntry(order.getId(), order.getOriginAddress().getLatitude(),
+                            order.getOriginAddress().getLongitude(), order.getStatus()))
+                    .collect(Collectors.toList()));
+            shards.forEach(shardEntries -> shardEntries.forEach(entry -> put(rebuilt, entry)));
+            synchronized (writeLock) {
+                pendingDuringRebuild.forEach(event -> apply(rebuilt, event));
+                grid = rebuilt;
+            }
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+        log.info("Índice geoespacial reconstruído com {} pedidos em {} ms", rebuilt.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    // Depois do commit, para que rollbacks não deixem pedidos fantasmas no índice
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (writeLock) {
+            apply(grid, event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        }
+    }
+
+    /**
+     * Busca os pedidos com o status informado num raio (km) ao redor do ponto,
+     * ordenados pela distância. Apenas as células que intersectam o raio são
+     * visitadas; perto dos polos, quando elas seriam mais numerosas que os
+     * pedidos indexados, todos os pedidos são percorridos.
+     */
+    public List<GeoHit> findNearby(double latitude, double longitude, double radiusKm, OrderStatus status, int limit) {
+        Grid current = grid;
+        double radius = Math.min(radiusKm, maxRadiusKm);
+        double angularRadius = radius / GeoUtils.EARTH_RADIUS_KM;
+        double latSpan = Math.toDegrees(angularRadius);
+
+        int minLat = cellIndex(Math.max(latitude - latSpan, -90));
+        int maxLat = cellIndex(Math.min(latitude + latSpan, 90));
+        int minLon;
+        int maxLon;
+        double sinRatio = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+        if (Math.abs(latitude) + latSpan >= 90 || sinRatio >= 1) {
+            // O círculo alcança o polo: todas as longitudes
+            minLon = 0;
+            maxLon = lonCells - 1;
+        } else {
+            double lonSpan = Math.toDegrees(Math.asin(sinRatio));
+            minLon = cellIndex(longitude - lonSpan);
+            maxLon = Math.min(cellIndex(longitude + lonSpan), minLon + lonCells - 1);
+        }
+
+        List<GeoHit> hits = new ArrayList<>();
+        long cellCount = (long) (maxLat - minLat + 1) * (maxLon - minLon + 1);
+        if (cellCount > current.entries.size()) {
+            current.entries.values().forEach(entry -> collect(entry, latitude, longitude, radius, status, hits));
+        } else {
+            for (int i = minLat; i <= maxLat; i++) {
+                for (int j = minLon; j <= maxLon; j++) {
+                    long key = cellKey(i, j);
+                    Map<Long, GeoEntry> cell = current.cells.get(key);
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (GeoEntry entry : cell.values()) {
+                        // Durante uma realocação o pedido aparece em duas células; só conta na da entrada atual
+                        GeoEntry indexed = current.entries.get(entry.orderId());
+                        if (indexed != null && cellKey(indexed.latitude(), indexed.longitude()) == key) {
+                            collect(entry, latitude, longitude, radius, status, hits);
+                        }
+                    }
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(GeoHit::distanceKm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    public int size() {
+        return grid.entries.size();
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void apply(Grid target, OrderChangedEvent event) {
+        OrderResponseDTO current = event.getCurrent();
+        if (event.getType() == OrderEventType.DELETED
+                || current.getStatus() == OrderStatus.DELIVERIED
+                || current.getOriginAddress() == null) {
+            remove(target, event.getOrderId());
+            return;
+        }
+        AddressDTO origin = current.getOriginAddress();
+        if (!GeoUtils.isValidCoordinate(origin.getLatitude(), origin.getLongitude())) {
+            remove(target, current.getId());
+            return;
+        }
+        put(target, new GeoEntry(current.getId(), origin.getLatitude(), origin.getLongitude(), current.getStatus()));
+    }
+
+    private void collect(GeoEntry entry, double latitude, double longitude, double radius, OrderStatus status, List<GeoHit> hits) {
+        if (status != null && entry.status() != status) {
+            return;
+        }
+        double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude(), entry.longitude());
+        if (distance <= radius) {
+            hits.add(new GeoHit(entry.orderId(), distance));
+        }
+    }
+
+    // Insere na célula nova antes de trocar a entrada atual e só depois tira da célula antiga,
+    // para que uma busca concorrente sempre conte o pedido em exatamente uma célula
+    private void put(Grid target, GeoEntry entry) {
+        long newKey = cellKey(entry.latitude(), entry.longitude());
+        target.cells.computeIfAbsent(newKey, k -> new ConcurrentHashMap<>()).put(entry.orderId(), entry);
+        GeoEntry previous = target.entries.put(entry.orderId(), entry);
+        if (previous != null) {
+            long oldKey = cellKey(previous.latitude(), previous.longitude());
+            if (oldKey != newKey) {
+                removeFromCell(target, oldKey, entry.orderId());
+            }
+        }
+    }
+
+    private void remove(Grid target, Long orderId) {
+        GeoEntry previous = target.entries.remove(orderId);
+        if (previous != null) {
+            removeFromCell(target, cellKey(previous.latitude(), previous.longitude()), orderId);
+        }
+    }
+
+    private void removeFromCell(Grid target, long key, Long orderId) {
+        target.cells.computeIfPresent(key, (k, cell) -> {
+            cell.remove(orderId);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    // A longitude dá a volta: -180° e 180° caem na mesma coluna
+    private long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (Math.floorMod(lonIndex, lonCells) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,199 @@
+package com.service.order.services;
+
+import com.service.order.dtos.LocationPointDTO;
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.enums.OrderEventType;
+import com.service.order.enums.OrderStatus;
+import com.service.order.events.OrderChangedEvent;
+import com.service.order.models.Order;
+import com.service.order.repositories.OrderRepository;
+import com.service.order.utils.GeoUtils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingestão de posições do motorista durante um pedido (POST /orders/{id}/locations).
+ * A posição mais recente fica em memória e também atualiza o DriverLocationStore usado
+ * na atribuição de pedidos; o histórico vai para order_locations em lotes.
+ */
+@Slf4j
+@Service
+public class OrderLocationService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO order_locations (order_id, driver_id, latitude, longitude, recorded_at, received_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String LATEST_SQL = """
+            SELECT order_id, driver_id, latitude, longitude, recorded_at, received_at FROM order_locations
+            WHERE order_id = ? ORDER BY recorded_at DESC LIMIT 1
+            """;
+    private static final Set<OrderStatus> TRACKABLE_STATUSES = EnumSet.of(OrderStatus.ACCEPTED, OrderStatus.ON_COURSE);
+    // Tolerância para relógios de aparelhos adiantados
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final OrderRepository orderRepository;
+    private final OrderShardRouter orderShardRouter;
+    private final DriverLocationStore driverLocationStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final LocationIngestBuffer buffer;
+    private final int maxBatchPoints;
+
+    // Pedidos em andamento -> motorista, evitando uma consulta ao banco por lote
+    private final Map<Long, Long> activeOrderDrivers = new ConcurrentHashMap<>();
+
+    public OrderLocationService(OrderRepository orderRepository,
+                                OrderShardRouter orderShardRouter,
+                                DriverLocationStore driverLocationStore,
+                                JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${orders.locations.queue-capacity:200000}") int queueCapacity,
+                                @Value("${orders.locations.write-batch-size:1000}") int writeBatchSize,
+                                @Value("${orders.locations.max-batch-points:500}") int maxBatchPoints) {
+        this.orderRepository = orderRepository;
+        this.orderShardRouter = orderShardRouter;
+        this.driverLocationStore = driverLocationStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatchPoints = maxBatchPoints;
+        this.buffer = new LocationIngestBuffer(queueCapacity, writeBatchSize, this::writeHistory);
+
+        Gauge.builder("orders.locations.queue_size", buffer, LocationIngestBuffer::getQueueSize)
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.locations.points", buffer, LocationIngestBuffer::getAccepted)
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.locations.points", buffer, LocationIngestBuffer::getRejected)
+                .tag("result", "rejected")
+                .description("Pontos recusados por falta de espaço na fila (503 para o cliente)")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.locations.written", buffer, LocationIngestBuffer::getWritten)
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.locations.dropped", buffer, LocationIngestBuffer::getDropped)
+                .description("Pontos descartados por falha ao gravar o histórico")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false se a fila de gravação estiver cheia; o cliente deve reenviar o lote mais tarde
+     */
+    public boolean ingest(Long orderId, List<LocationPointDTO> points) {
+        if (points.size() > maxBatchPoints) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Envie no máximo " + maxBatchPoints + " posições por requisição.");
+        }
+        Long driverId = driverFor(orderId);
+
+        Instant now = Instant.now();
+        List<LocationIngestBuffer.LocationPoint> batch = new ArrayList<>(points.size());
+        for (LocationPointDTO point : points) {
+            if (point.getLatitude() == null || point.getLongitude() == null
+                    || !GeoUtils.isValidCoordinate(point.getLatitude(), point.getLongitude())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Posição com coordenadas inválidas.");
+            }
+            Instant recordedAt = point.getRecordedAt() != null ? point.getRecordedAt() : now;
+            if (recordedAt.isAfter(now.plus(MAX_CLOCK_SKEW))) {
+                recordedAt = now;
+            }
+            batch.add(new LocationIngestBuffer.LocationPoint(orderId, driverId, point.getLatitude(),
+                    point.getLongitude(), recordedAt, now));
+        }
+
+        if (!buffer.offer(batch)) {
+            return false;
+        }
+        LocationIngestBuffer.LocationPoint latest = buffer.latest(orderId);
+        if (latest != null) {
+            driverLocationStore.update(driverId, latest.latitude(), latest.longitude(), null);
+        }
+        return true;
+    }
+
+    public Optional<LocationIngestBuffer.LocationPoint> getLatest(Long orderId) {
+        LocationIngestBuffer.LocationPoint latest = buffer.latest(orderId);
+        if (latest != null) {
+            return Optional.of(latest);
+        }
+        // Pedidos já finalizados (ou outra instância recebeu as posições): consulta o histórico
+        return jdbcTemplate.query(LATEST_SQL, (rs, rowNum) -> new LocationIngestBuffer.LocationPoint(
+                        rs.getLong("order_id"),
+                        rs.getLong("driver_id"),
+                        rs.getDouble("latitude"),
+                        rs.getDouble("longitude"),
+                        rs.getTimestamp("recorded_at").toInstant(),
+                        rs.getTimestamp("received_at").toInstant()), orderId)
+                .stream()
+                .findFirst();
+    }
+
+    // Depois do commit, para que uma nova consulta em driverFor já veja o estado gravado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderResponseDTO current = event.getCurrent();
+        if (event.getType() == OrderEventType.DELETED
+                || current.getDriverId() == null
+                || !TRACKABLE_STATUSES.contains(current.getStatus())) {
+            activeOrderDrivers.remove(event.getOrderId());
+            buffer.forget(event.getOrderId());
+            return;
+        }
+        activeOrderDrivers.put(current.getId(), current.getDriverId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.close();
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private Long driverFor(Long orderId) {
+        Long driverId = activeOrderDrivers.get(orderId);
+        if (driverId != null) {
+            return driverId;
+        }
+        Order order = orderShardRouter.onShardOf(orderId, () -> orderRepository.findById(orderId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado com ID: " + orderId));
+        if (order.getDriverId() == null || !TRACKABLE_STATUSES.contains(order.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Pedido " + orderId + " não está em andamento com um motorista.");
+        }
+        activeOrderDrivers.put(orderId, order.getDriverId());
+        return order.getDriverId();
+    }
+
+    private void writeHistory(List<LocationIngestBuffer.LocationPoint> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, point) -> {
+            ps.setLong(1, point.orderId());
+            ps.setLong(2, point.driverId());
+            ps.setDouble(3, point.latitude());
+            ps.setDouble(4, point.longitude());
+            ps.setTimestamp(5, Timestamp.from(point.recordedAt()));
+            ps.setTimestamp(6, Timestamp.from(point.receivedAt()));
+        });
+    }
+}
@@ -1,26 +1,54 @@
 package com.service.order.services;
 
 import com.service.order.dtos.*;
+import com.service.order.enums.OrderEventType;
 import com.service.order.enums.OrderStatus;
+import com.service.order.events.OrderChangedEvent;
 import com.service.order.models.Order;
 import com.service.order.models.Address;
 import com.service.order.repositories.OrderRepository;
 import com.service.order.exceptions.ResourceNotFoundException;
+import com.service.order.utils.ContentHash;
+import com.service.order.utils.GeoUtils;
+import com.service.order.utils.SingleFlight;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
 
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 
 
@@ -29,10 +57,24 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class OrderService {
 
+    // Limites do multi-get: ids por requisição e ids por cláusula IN
+    private static final int MULTI_GET_MAX_IDS = 1000;
+    private static final int MULTI_GET_CHUNK_SIZE = 500;
+    // Pedidos por transação no cálculo retroativo de distância/duração
+    private static final int ROUTE_BACKFILL_BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final OrderFinishedEventPublisher orderFinishedEventPublisher;
     private final WebClient webClient = WebClient.create();
     private final SupabaseStorageService supabaseStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderGeoIndex orderGeoIndex;
+    private final DriverLocationStore driverLocationStore;
+    private final RouteEstimator routeEstimator;
+    private final SingleFlight<Long, Optional<OrderResponseDTO>> orderLookupSingleFlight;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderShardRouter orderShardRouter;
+    private final PlatformTransactionManager transactionManager;
 
     public OrderResponseDTO createOrder(CreateOrderDTO dto) {
         log.info("Criando novo pedido para o cliente ID {}", dto.getCustomerId());
@@ -45,102 +87,210 @@ public class OrderService {
         order.setDestinationAddress(toAddress(dto.getDestinationAddress()));
         order.setDescription(dto.getDescription());
         order.setImageUrl(dto.getImageUrl());
+        order.setCreatedAt(LocalDateTime.now());
+        if (order.getStatus() == OrderStatus.DELIVERIED)
+            order.setCompletedAt(order.getCreatedAt());
+        applyRouteEstimate(order);
+
+        Order saved = orderShardRouter.writeForCustomer(order.getCustomerId(), () -> orderRepository.save(order));
+        OrderResponseDTO created = toDTO(saved);
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.CREATED, null, created));
+        return created;
+    }
 
-        Order saved = orderRepository.save(order);
-        return toDTO(saved);
+    public Page<OrderResponseDTO> getAllOrders(Double minDistanceKm, Double maxDistanceKm, final Pageable pageable) {
+        return getAllOrders(minDistanceKm, maxDistanceKm, pageable, this::toDTO);
     }
 
-    public Page<OrderResponseDTO> getAllOrders(final Pageable pageable) {
+    public <T> Page<T> getAllOrders(Double minDistanceKm, Double maxDistanceKm, final Pageable pageable, Function<Order, T> mapper) {
         log.info("Buscando todos os pedidos com paginação");
 
-        Page<Order> ordersPage = orderRepository.findAll(pageable);
+        Page<Order> ordersPage = findPageOnAllShards(pageable, shardPageable -> (minDistanceKm == null && maxDistanceKm == null)
+                ? orderRepository.findAll(shardPageable)
+                : orderRepository.findByDistanceKmBetween(
+                        minDistanceKm != null ? minDistanceKm : 0.0,
+                        maxDistanceKm != null ? maxDistanceKm : Double.MAX_VALUE,
+                        shardPageable));
 
-        List<OrderResponseDTO> dtos = ordersPage
+        List<T> dtos = ordersPage
                 .stream()
-                .map(this::toDTO)
+                .map(mapper)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(dtos, pageable, ordersPage.getTotalElements());
     }
 
     public OrderResponseDTO getOrderById(Long id) {
+        return getOrderById(id, Function.identity());
+    }
+
+    public <T> T getOrderById(Long id, Function<OrderResponseDTO, T> mapper) {
         log.info("Buscando pedido com ID {}", id);
-        Order order = orderRepository.findById(id)
+        // Leituras simultâneas do mesmo pedido compartilham uma única consulta ao banco; o que vai
+        // para as outras threads é o DTO, não a entidade gerenciada. Pedidos entregues antigos saem
+        // de orders e são lidos do arquivo
+        OrderResponseDTO order = orderLookupSingleFlight.execute(id, () -> orderShardRouter.onShardOf(id, () -> orderRepository.findById(id)
+                        .or(() -> orderArchiveService.findArchived(id))
+                        .map(this::toDTO)))
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
-        return toDTO(order);
+        return mapper.apply(order);
+    }
+
+    // Uma busca iniciada antes da escrita não atende mais ninguém que chegue depois dela
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        orderLookupSingleFlight.forget(event.getOrderId());
+    }
+
+    /**
+     * Busca vários pedidos numa única ida ao banco (IN em blocos de até 500 ids).
+     * O resultado segue a ordem dos ids pedidos e marca como não encontrados os que não existem.
+     */
+    public List<MultiGetItemDTO> getOrdersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MULTI_GET_MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe entre 1 e " + MULTI_GET_MAX_IDS + " ids.");
+        }
+        log.info("Buscando {} pedidos por ID", ids.size());
+
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, OrderResponseDTO> ordersById = new HashMap<>();
+        for (int start = 0; start < distinctIds.size(); start += MULTI_GET_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(start, Math.min(start + MULTI_GET_CHUNK_SIZE, distinctIds.size()));
+            List<Order> found = orderShardRouter.forIds(chunk, orderRepository::findAllById);
+            found.forEach(order -> ordersById.put(order.getId(), toDTO(order)));
+        }
+        List<Long> missing = distinctIds.stream().filter(id -> !ordersById.containsKey(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            List<Order> archived = orderShardRouter.forIds(missing, orderArchiveService::findArchived);
+            archived.forEach(order -> ordersById.put(order.getId(), toDTO(order)));
+        }
+
+        return ids.stream()
+                .map(id -> {
+                    OrderResponseDTO order = ordersById.get(id);
+                    return new MultiGetItemDTO(id, order != null, order);
+                })
+                .collect(Collectors.toList());
     }
 
     public OrderResponseDTO updateOrder(Long id, UpdateOrderDTO dto) {
         log.info("Atualizando pedido com ID {}", id);
-        Order order = orderRepository.findById(id)
+        Order order = orderShardRouter.onShardOf(id, () -> orderRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
+        OrderResponseDTO previous = toDTO(order);
 
         if (dto.getDriverId() != null)
             order.setDriverId(dto.getDriverId());
-        if (dto.getStatus() != null)
+        if (dto.getStatus() != null) {
+            if (dto.getStatus() == OrderStatus.DELIVERIED && order.getStatus() != OrderStatus.DELIVERIED)
+                order.setCompletedAt(LocalDateTime.now());
+            else if (dto.getStatus() != OrderStatus.DELIVERIED)
+                order.setCompletedAt(null);
             order.setStatus(dto.getStatus());
+        }
         if (dto.getOriginAddress() != null)
             order.setOriginAddress(toAddress(dto.getOriginAddress()));
         if (dto.getDestinationAddress() != null)
             order.setDestinationAddress(toAddress(dto.getDestinationAddress()));
+        if (dto.getOriginAddress() != null || dto.getDestinationAddress() != null)
+            applyRouteEstimate(order);
         if (dto.getDescription() != null)
             order.setDescription(dto.getDescription());
         if (dto.getImageUrl() != null)
             order.setImageUrl(dto.getImageUrl());
 
-        Order updated = orderRepository.save(order);
-        return toDTO(updated);
+        Order updated = orderShardRouter.writeOnShardOf(id, () -> orderRepository.save(order));
+        OrderResponseDTO current = toDTO(updated);
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.UPDATED, previous, current));
+        return current;
     }
 
     public void deleteOrder(Long id) {
         log.info("Deletando pedido com ID {}", id);
-        Order order = orderRepository.findById(id)
+        Order order = orderShardRouter.onShardOf(id, () -> orderRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
-        orderRepository.delete(order);
+        OrderResponseDTO previous = toDTO(order);
+        orderShardRouter.writeOnShardOf(id, () -> {
+            orderRepository.delete(order);
+            return null;
+        });
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.DELETED, previous, previous));
     }
 
     public List<OrderResponseDTO> getOrdersByDriverId(Long driverId) {
+        return getOrdersByDriverId(driverId, this::toDTO);
+    }
+
+    public <T> List<T> getOrdersByDriverId(Long driverId, Function<Order, T> mapper) {
         log.info("Buscando pedidos do motorista com ID {}", driverId);
-        List<Order> orders = orderRepository.findByDriverId(driverId);
+        List<Order> orders = onAllShards(() -> orderRepository.findByDriverId(driverId));
         return orders.stream()
-                .map(this::toDTO)
+                .map(mapper)
                 .collect(Collectors.toList());
     }
 
     public Page<OrderResponseDTO> getOrdersByDriverId(Long driverId, Pageable pageable) {
+        return getOrdersByDriverId(driverId, pageable, this::toDTO);
+    }
+
+    public <T> Page<T> getOrdersByDriverId(Long driverId, Pageable pageable, Function<Order, T> mapper) {
         log.info("Buscando pedidos do motorista com ID {} (paginado)", driverId);
-        Page<Order> ordersPage = orderRepository.findByDriverId(driverId, pageable);
+        Page<Order> ordersPage = findPageOnAllShards(pageable, shardPageable -> orderRepository.findByDriverId(driverId, shardPageable));
+
+        List<T> dtos = ordersPage
+                .stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(dtos, pageable, ordersPage.getTotalElements());
+    }
+
+    /**
+     * Busca textual (sem acentos) em descrição e endereços, ordenada por relevância.
+     */
+    public Page<OrderResponseDTO> searchOrders(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o termo de busca.");
+        }
+        log.info("Buscando pedidos pelo termo '{}'", query);
+        // A ordenação é sempre por relevância; ignora um eventual sort da requisição
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Order> ordersPage = searchOnAllShards(query.trim(), unsorted);
 
         List<OrderResponseDTO> dtos = ordersPage
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
 
-        return new PageImpl<>(dtos, pageable, ordersPage.getTotalElements());
+        return new PageImpl<>(dtos, unsorted, ordersPage.getTotalElements());
     }
 
-    public OrderResponseDTO completeOrder(Long id, CompleteOrderDTO completeOrderDTO, MultipartFile file) {
+    public OrderResponseDTO completeOrder(Long id, CompleteOrderDTO completeOrderDTO, MultipartFile file, ContentHash hash) {
         log.info("Finalizando pedido com ID {}", id);
-        Order order = orderRepository.findById(id)
+        Order order = orderShardRouter.onShardOf(id, () -> orderRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
 
         if (order.getStatus() == OrderStatus.DELIVERIED) {
             throw new IllegalStateException("Pedido já está finalizado");
         }
+        // Recusa antes do upload da foto se o pedido estiver sendo movido de shard
+        orderShardRouter.writeOnShardOf(id, () -> null);
+        OrderResponseDTO previous = toDTO(order);
 
         final String fileName = "completed_order_photo_" + id;
 
         String imgUrl;
         try {
-            imgUrl = supabaseStorageService.uploadOrUpdateUserPhoto(file, fileName);
+            imgUrl = supabaseStorageService.uploadOrUpdateUserPhoto(file, hash, fileName);
         } catch (IOException e) {
             log.error("Erro ao processar imagem para pedido ID {}: {}", id, e.getMessage());
             throw new RuntimeException("Erro ao processar imagem do pedido.", e);
         }
 
         order.setStatus(OrderStatus.DELIVERIED);
+        order.setCompletedAt(LocalDateTime.now());
         order.setImageUrl(imgUrl);
-        Order completed = orderRepository.save(order);
+        Order completed = orderShardRouter.writeOnShardOf(id, () -> orderRepository.save(order));
 
         OrderFinishedEventDTO eventDTO = new OrderFinishedEventDTO();
         eventDTO.setPedidoId(completed.getId());
@@ -156,14 +306,262 @@ public class OrderService {
         eventDTO.setTitle("Pedido finalizado!");
 
         orderFinishedEventPublisher.publish(eventDTO);
-        return toDTO(completed);
+        OrderResponseDTO current = toDTO(completed);
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.COMPLETED, previous, current));
+        return current;
+    }
+
+    /**
+     * Persiste em lote as atribuições calculadas pelo OrderAssignmentEngine, numa transação
+     * por shard. Pedidos que deixaram de estar PENDING, receberam motorista manualmente desde
+     * o cálculo ou estão sendo movidos de shard são ignorados.
+     */
+    public List<AssignmentPlanner.Assignment> assignDrivers(List<AssignmentPlanner.Assignment> assignments) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<Integer, List<AssignmentPlanner.Assignment>> byShard = assignments.stream()
+                .filter(assignment -> orderShardRouter.isWritable(assignment.orderId()))
+                .collect(Collectors.groupingBy(assignment -> orderShardRouter.shardOf(assignment.orderId())));
+
+        List<AssignmentPlanner.Assignment> applied = new ArrayList<>();
+        byShard.forEach((shard, shardAssignments) -> applied.addAll(orderShardRouter.writeOnShard(shard,
+                writable -> transactionTemplate.execute(status -> assignDriversOnCurrentShard(shardAssignments.stream()
+                        .filter(assignment -> writable.test(assignment.orderId()))
+                        .collect(Collectors.toList()))))));
+        log.info("{} pedidos atribuídos automaticamente a motoristas", applied.size());
+        return applied;
+    }
+
+    public DriverLocationStore.DriverPosition updateDriverPosition(Long driverId, DriverPositionDTO dto) {
+        log.info("Atualizando posição do motorista ID {}", driverId);
+        if (!GeoUtils.isValidCoordinate(dto.getLatitude(), dto.getLongitude())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Latitude e longitude válidas são obrigatórias.");
+        }
+        return driverLocationStore.update(driverId, dto.getLatitude(), dto.getLongitude(), dto.getAvailable());
+    }
+
+    public List<NearbyOrderDTO> findNearbyOrders(double latitude, double longitude, double radiusKm, OrderStatus status, int limit) {
+        log.info("Buscando pedidos {} num raio de {} km de ({}, {})", status, radiusKm, latitude, longitude);
+        if (!GeoUtils.isValidCoordinate(latitude, longitude) || radiusKm <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Coordenadas ou raio de busca inválidos.");
+        }
+        List<OrderGeoIndex.GeoHit> hits = orderGeoIndex.findNearby(latitude, longitude, radiusKm, status, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Order> found = orderShardRouter.forIds(
+                hits.stream().map(OrderGeoIndex.GeoHit::orderId).collect(Collectors.toList()), orderRepository::findAllById);
+        Map<Long, Order> ordersById = found.stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        // Mantém a ordenação por distância devolvida pelo índice
+        return hits.stream()
+                .filter(hit -> ordersById.containsKey(hit.orderId()))
+                .map(hit -> new NearbyOrderDTO(toDTO(ordersById.get(hit.orderId())), hit.distanceKm()))
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Calcula distância/duração dos pedidos gravados antes desses campos existirem, em lotes
+     * por id. Os que não têm coordenadas ficam marcados (routeUnavailable) e não voltam a ser
+     * carregados nas próximas subidas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRouteEstimates() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger estimated = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        orderShardRouter.onAllShards(() -> {
+            int shard = orderShardRouter.currentShard();
+            long afterId = Long.MIN_VALUE;
+            List<Order> batch;
+            do {
+                long from = afterId;
+                batch = orderShardRouter.writeOnShard(shard, writable -> transactionTemplate.execute(status -> {
+                    List<Order> orders = orderRepository.findRouteEstimatePending(from, PageRequest.of(0, ROUTE_BACKFILL_BATCH_SIZE));
+                    // Só os pedidos cujo bucket mora neste shard e não está em migração
+                    List<Order> owned = orders.stream()
+                            .filter(order -> writable.test(order.getId()))
+                            .collect(Collectors.toList());
+                    owned.forEach(order -> {
+                        applyRouteEstimate(order);
+                        (order.getDistanceKm() != null ? estimated : unavailable).incrementAndGet();
+                    });
+                    orderRepository.saveAll(owned);
+                    return orders;
+                }));
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == ROUTE_BACKFILL_BATCH_SIZE);
+            return null;
+        });
+        if (estimated.get() + unavailable.get() > 0) {
+            log.info("Distância e duração estimada calculadas para {} pedidos existentes ({} sem coordenadas)",
+                    estimated.get(), unavailable.get());
+        }
     }
 
+    /**
+     * Mesmas consultas e mapeamentos das leituras mais frequentes, sem log por chamada. Usado
+     * pelo OrderWarmupRunner antes de o serviço ficar pronto.
+     */
+    List<OrderResponseDTO> warmUpReads(Pageable pageable) {
+        Page<Order> page = findPageOnAllShards(pageable, shardPageable -> orderRepository.findAll(shardPageable));
+        findPageOnAllShards(pageable, shardPageable -> orderRepository.findByDistanceKmBetween(0.0, Double.MAX_VALUE, shardPageable));
+        findPageOnAllShards(pageable, shardPageable -> orderRepository.findByDriverId(-1L, shardPageable));
+        searchOnAllShards("warmup", pageable);
+
+        List<OrderResponseDTO> dtos = page.stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        if (!dtos.isEmpty()) {
+            Long id = dtos.get(0).getId();
+            orderShardRouter.onShardOf(id, () -> orderRepository.findById(id));
+        }
+        return dtos;
+    }
 
     // -----------------------
     // Métodos auxiliares
     // -----------------------
 
+    private List<AssignmentPlanner.Assignment> assignDriversOnCurrentShard(List<AssignmentPlanner.Assignment> assignments) {
+        Map<Long, Order> ordersById = orderRepository
+                .findAllById(assignments.stream().map(AssignmentPlanner.Assignment::orderId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<AssignmentPlanner.Assignment> applied = new ArrayList<>();
+        List<OrderResponseDTO> previousStates = new ArrayList<>();
+        List<Order> changed = new ArrayList<>();
+        for (AssignmentPlanner.Assignment assignment : assignments) {
+            Order order = ordersById.get(assignment.orderId());
+            if (order == null || order.getDriverId() != null || order.getStatus() != OrderStatus.PENDING) {
+                continue;
+            }
+            previousStates.add(toDTO(order));
+            order.setDriverId(assignment.driverId());
+            changed.add(order);
+            applied.add(assignment);
+        }
+
+        List<Order> saved = orderRepository.saveAll(changed);
+        for (int i = 0; i < saved.size(); i++) {
+            eventPublisher.publishEvent(new OrderChangedEvent(OrderEventType.UPDATED, previousStates.get(i), toDTO(saved.get(i))));
+        }
+        return applied;
+    }
+
+    private List<Order> onAllShards(Supplier<List<Order>> query) {
+        return orderShardRouter.onAllShards(() -> query.get().stream()
+                        .filter(order -> orderShardRouter.ownsHere(order.getId()))
+                        .collect(Collectors.toList()))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Paginação sobre todos os shards: cada shard devolve as primeiras offset + size linhas
+     * na mesma ordenação, e a página é recortada da junção delas. O custo cresce com o número
+     * da página, como o OFFSET de uma consulta comum.
+     */
+    private Page<Order> findPageOnAllShards(Pageable pageable, Function<Pageable, Page<Order>> query) {
+        if (!orderShardRouter.isSharded()) {
+            return query.apply(pageable);
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        Pageable shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+
+        List<Page<Order>> pages = orderShardRouter.onAllShards(() -> ownedOnly(query.apply(shardPageable)));
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<Order> merged = pages.stream()
+                .flatMap(Page::stream)
+                .sorted(comparatorFor(sort))
+                .collect(Collectors.toList());
+        if (pageable.isPaged()) {
+            merged = merged.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).collect(Collectors.toList());
+        }
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    /**
+     * A relevância não volta na consulta; os resultados de cada shard (já ordenados por
+     * relevância) são intercalados.
+     */
+    private Page<Order> searchOnAllShards(String query, Pageable pageable) {
+        if (!orderShardRouter.isSharded()) {
+            return orderRepository.search(query, pageable);
+        }
+        Pageable shardPageable = PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()));
+        List<Page<Order>> pages = orderShardRouter.onAllShards(() -> ownedOnly(orderRepository.search(query, shardPageable)));
+
+        List<Order> interleaved = new ArrayList<>();
+        List<Iterator<Order>> iterators = pages.stream().map(Page::iterator).collect(Collectors.toList());
+        boolean remaining = true;
+        while (remaining) {
+            remaining = false;
+            for (Iterator<Order> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    interleaved.add(iterator.next());
+                    remaining = true;
+                }
+            }
+        }
+        List<Order> page = interleaved.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+        return new PageImpl<>(page, pageable, pages.stream().mapToLong(Page::getTotalElements).sum());
+    }
+
+    private Page<Order> ownedOnly(Page<Order> page) {
+        List<Order> owned = page.stream()
+                .filter(order -> orderShardRouter.ownsHere(order.getId()))
+                .collect(Collectors.toList());
+        return new PageImpl<>(owned, page.getPageable(), page.getTotalElements());
+    }
+
+    private static Comparator<Order> comparatorFor(Sort sort) {
+        Comparator<Order> comparator = (a, b) -> 0;
+        for (Sort.Order sortOrder : sort) {
+            // Como no Postgres: nulos por último em ordem crescente e primeiro em decrescente
+            Comparator<Order> byProperty = (a, b) -> compareSortValues(
+                    sortValue(a, sortOrder.getProperty()), sortValue(b, sortOrder.getProperty()));
+            comparator = comparator.thenComparing(sortOrder.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        return comparator.thenComparing(Order::getId);
+    }
+
+    private static Object sortValue(Order order, String property) {
+        try {
+            Object value = new BeanWrapperImpl(order).getPropertyValue(property);
+            // Enums são gravados como texto (EnumType.STRING)
+            return value instanceof Enum<?> enumValue ? enumValue.name() : value;
+        } catch (NullValueInNestedPathException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareSortValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private void applyRouteEstimate(Order order) {
+        RouteEstimator.RouteEstimate estimate = routeEstimator.estimate(order.getOriginAddress(), order.getDestinationAddress());
+        order.setDistanceKm(estimate != null ? estimate.distanceKm() : null);
+        order.setEstimatedDurationMinutes(estimate != null ? estimate.estimatedDurationMinutes() : null);
+        order.setRouteUnavailable(estimate == null ? Boolean.TRUE : null);
+    }
+
     private OrderResponseDTO toDTO(Order order) {
         OrderResponseDTO dto = new OrderResponseDTO();
         dto.setId(order.getId());
@@ -174,10 +572,15 @@ public class OrderService {
         dto.setDestinationAddress(toAddressDTO(order.getDestinationAddress()));
         dto.setDescription(order.getDescription());
         dto.setImageUrl(order.getImageUrl());
+        dto.setDistanceKm(order.getDistanceKm());
+        dto.setEstimatedDurationMinutes(order.getEstimatedDurationMinutes());
+        dto.setCreatedAt(order.getCreatedAt());
+        dto.setCompletedAt(order.getCompletedAt());
         return dto;
     }
 
-    private AddressDTO toAddressDTO(Address address) {
+    // Também usado pelo SparseOrderProjector, para que a projeção parcial tenha a mesma forma
+    static AddressDTO toAddressDTO(Address address) {
         if (address == null)
             return null;
         AddressDTO dto = new AddressDTO();
@@ -0,0 +1,268 @@
+package com.service.order.services;
+
+import com.service.order.config.ShardingProperties;
+import com.service.order.utils.ShardContext;
+import com.service.order.utils.ShardKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Decide em qual shard cada operação sobre pedidos roda. O mapa bucket -> shard fica na
+ * tabela order_shard_buckets (shard 0) e é relido a cada orders.sharding.refresh-ms; buckets
+ * em migração (LOCKED) aceitam leituras, mas recusam escritas com 503 até o fim da cópia.
+ * <p>
+ * O mapa em memória só orienta as leituras. Cada escrita relê a linha do seu bucket com
+ * FOR SHARE numa transação no shard 0 e a mantém até terminar: o rebalanceador só consegue
+ * marcar o bucket como LOCKED depois das escritas em andamento, e as seguintes já veem o
+ * estado e o shard novos, mesmo que a releitura periódica esteja atrasada.
+ * <p>
+ * Sem particionamento tudo roda direto na thread atual, no único banco.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderShardRouter {
+
+    public static final String STATE_ACTIVE = "ACTIVE";
+    public static final String STATE_LOCKED = "LOCKED";
+
+    private static final String BUCKET_FENCE_SQL = "SELECT shard, state FROM order_shard_buckets WHERE bucket = ? FOR SHARE";
+    private static final String SHARD_FENCE_SQL = "SELECT bucket, state FROM order_shard_buckets WHERE shard = ? FOR SHARE";
+
+    private final ShardingProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate fenceTransaction;
+    private final TransactionTemplate shardTransaction;
+    private final ExecutorService fanOut;
+
+    private volatile int[] bucketShards = new int[ShardKeys.BUCKETS];
+    private volatile boolean[] lockedBuckets = new boolean[ShardKeys.BUCKETS];
+
+    public OrderShardRouter(ShardingProperties properties, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fenceTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOut = properties.isEnabled()
+                ? Executors.newFixedThreadPool(Math.max(1, properties.getFanOutThreads()), r -> {
+                    Thread thread = new Thread(r, "order-shard-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public boolean isSharded() {
+        return properties.isEnabled();
+    }
+
+    public int shardCount() {
+        return properties.shardCount();
+    }
+
+    public int shardOf(long orderId) {
+        return isSharded() ? bucketShards[ShardKeys.bucketOf(orderId)] : 0;
+    }
+
+    /**
+     * Pedidos cujo bucket está sendo movido de shard não podem ser alterados.
+     */
+    public boolean isWritable(long orderId) {
+        return !isSharded() || !lockedBuckets[ShardKeys.bucketOf(orderId)];
+    }
+
+    /**
+     * Durante a migração de um bucket os pedidos dele existem por alguns instantes nos dois
+     * shards; nas consultas em todos os shards vale só a cópia do shard dono.
+     */
+    public boolean ownsHere(long orderId) {
+        return !isSharded() || shardOf(orderId) == currentShard();
+    }
+
+    public int currentShard() {
+        Integer current = ShardContext.current();
+        return current != null ? current : 0;
+    }
+
+    public <T> T onShardOf(Long orderId, Supplier<T> action) {
+        if (!isSharded() || orderId == null) {
+            return action.get();
+        }
+        return ShardContext.call(shardOf(orderId), action);
+    }
+
+    public <T> T writeOnShardOf(Long orderId, Supplier<T> action) {
+        if (!isSharded() || orderId == null) {
+            return onShardOf(orderId, action);
+        }
+        return writeOnBucket(ShardKeys.bucketOf(orderId), action);
+    }
+
+    /**
+     * Pedido novo: vai para o shard do bucket do cliente.
+     */
+    public <T> T writeForCustomer(Long customerId, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        return writeOnBucket(ShardKeys.bucketForCustomer(customerId), action);
+    }
+
+    /**
+     * Escrita em lote nos pedidos de um shard: a ação recebe o filtro dos pedidos cujo bucket
+     * continua ACTIVE nesse shard (lido com FOR SHARE) e deve ignorar os demais.
+     */
+    public <T> T writeOnShard(int shard, Function<Predicate<Long>, T> action) {
+        if (!isSharded()) {
+            return action.apply(orderId -> true);
+        }
+        return ShardContext.call(0, () -> fenceTransaction.execute(status -> {
+            boolean[] active = new boolean[ShardKeys.BUCKETS];
+            jdbcTemplate.query(SHARD_FENCE_SQL, rs -> {
+                active[rs.getInt("bucket")] = STATE_ACTIVE.equals(rs.getString("state"));
+            }, shard);
+            return inFencedShard(shard, () -> action.apply(orderId -> active[ShardKeys.bucketOf(orderId)]));
+        }));
+    }
+
+    /**
+     * Executa a ação em todos os shards em paralelo; o resultado de cada shard fica na posição
+     * do shard. Uma falha em qualquer shard é repassada a quem chamou.
+     */
+    public <T> List<T> onAllShards(Supplier<T> action) {
+        if (!isSharded()) {
+            List<T> single = new ArrayList<>(1);
+            single.add(action.get());
+            return single;
+        }
+        List<CompletableFuture<T>> calls = new ArrayList<>();
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int target = shard;
+            calls.add(CompletableFuture.supplyAsync(() -> ShardContext.call(target, action), fanOut));
+        }
+        return join(calls);
+    }
+
+    /**
+     * Consulta por ids: agrupa os ids por shard, consulta os shards envolvidos em paralelo e
+     * junta os resultados (sem ordem definida).
+     */
+    public <T> List<T> forIds(Collection<Long> orderIds, Function<List<Long>, List<T>> lookup) {
+        if (!isSharded()) {
+            return lookup.apply(new ArrayList<>(orderIds));
+        }
+        List<CompletableFuture<List<T>>> calls = new ArrayList<>();
+        groupByShard(orderIds).forEach((shard, ids) -> calls.add(
+                CompletableFuture.supplyAsync(() -> ShardContext.call(shard, () -> lookup.apply(ids)), fanOut)));
+        return join(calls).stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> orderIds) {
+        return orderIds.stream().collect(Collectors.groupingBy(this::shardOf, TreeMap::new, Collectors.toList()));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.sharding.refresh-ms:5000}")
+    public void refresh() {
+        if (!isSharded()) {
+            return;
+        }
+        int[] shards = new int[ShardKeys.BUCKETS];
+        boolean[] locked = new boolean[ShardKeys.BUCKETS];
+        try {
+            ShardContext.run(0, () -> jdbcTemplate.query("SELECT bucket, shard, state FROM order_shard_buckets", rs -> {
+                int bucket = rs.getInt("bucket");
+                int shard = rs.getInt("shard");
+                if (shard >= shardCount()) {
+                    throw new IllegalStateException("Bucket " + bucket + " aponta para o shard " + shard
+                            + ", mas só há " + shardCount() + " shards configurados");
+                }
+                shards[bucket] = shard;
+                locked[bucket] = STATE_LOCKED.equals(rs.getString("state"));
+            }));
+        } catch (RuntimeException e) {
+            // Mantém o último mapa válido
+            log.warn("Falha ao ler o mapa de shards, mantendo o anterior: {}", e.getMessage());
+            return;
+        }
+        bucketShards = shards;
+        lockedBuckets = locked;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOut != null) {
+            fanOut.shutdownNow();
+        }
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private <T> T writeOnBucket(int bucket, Supplier<T> action) {
+        // Atalho pelo mapa em memória; quem decide é a linha lida dentro da transação
+        if (lockedBuckets[bucket]) {
+            throw migrating();
+        }
+        return ShardContext.call(0, () -> fenceTransaction.execute(status -> {
+            Map<String, Object> row = jdbcTemplate.queryForMap(BUCKET_FENCE_SQL, bucket);
+            if (STATE_LOCKED.equals(row.get("state"))) {
+                throw migrating();
+            }
+            return inFencedShard(((Number) row.get("shard")).intValue(), action);
+        }));
+    }
+
+    // No shard 0 a escrita usa a mesma transação (e conexão) que segura o lock. Nos demais ela
+    // abre a própria transação no shard; a do shard 0 fica suspensa, mas mantém o lock até o fim
+    private <T> T inFencedShard(int shard, Supplier<T> action) {
+        if (shard == 0) {
+            return action.get();
+        }
+        return ShardContext.call(shard, () -> shardTransaction.execute(status -> action.get()));
+    }
+
+    private static ResponseStatusException migrating() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Pedidos em migração entre bancos, tente novamente em instantes.");
+    }
+
+    private static <T> List<T> join(List<CompletableFuture<T>> calls) {
+        try {
+            return calls.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
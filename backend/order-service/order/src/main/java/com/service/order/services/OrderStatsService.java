@@ -0,0 +1,236 @@
+package com.service.order.services;
+
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.dtos.OrderStatsDTO;
+import com.service.order.enums.OrderEventType;
+import com.service.order.enums.StatsDimension;
+import com.service.order.events.OrderChangedEvent;
+import com.service.order.models.OrderStat;
+import com.service.order.repositories.OrderRepository;
+import com.service.order.repositories.OrderStatRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mantém contagens de pedidos por status, motorista, cidade de origem e finalizações por dia.
+ * <p>
+ * Cada mudança de pedido vira incrementos em contadores LongAdder em memória; um job
+ * periódico grava os deltas na tabela order_stats (upsert somando ao valor atual) e relê a
+ * tabela, o que também traz os incrementos feitos por outras instâncias. A leitura
+ * soma o último snapshot da tabela aos deltas ainda não gravados, sem tocar em orders.
+ * <p>
+ * Ao gravar, os deltas passam dos contadores para o snapshot em memória de uma vez (sob
+ * snapshotLock), então a leitura nunca fica sem eles enquanto o upsert e a releitura rodam.
+ */
+@Slf4j
+@Service
+@Lazy(false) // Tarefa agendada: precisa existir mesmo com spring.main.lazy-initialization
+public class OrderStatsService {
+
+    private static final String UPSERT_DELTA_SQL = """
+            INSERT INTO order_stats (dimension, dimension_key, total) VALUES (?, ?, ?)
+            ON CONFLICT (dimension, dimension_key) DO UPDATE SET total = order_stats.total + EXCLUDED.total
+            """;
+    private static final String INSERT_INITIAL_SQL = """
+            INSERT INTO order_stats (dimension, dimension_key, total) VALUES (?, ?, ?)
+            ON CONFLICT (dimension, dimension_key) DO NOTHING
+            """;
+
+    private final OrderStatRepository orderStatRepository;
+    private final OrderRepository orderRepository;
+    private final OrderShardRouter orderShardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+
+    private record StatKey(StatsDimension dimension, String key) {
+    }
+
+    private final Map<StatKey, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    private volatile Map<StatKey, Long> persisted = Map.of();
+    // Leitura: persisted + pendingDeltas. Escrita: move deltas entre os dois
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public OrderStatsService(OrderStatRepository orderStatRepository,
+                             OrderRepository orderRepository,
+                             OrderShardRouter orderShardRouter,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${orders.stats.zone:America/Sao_Paulo}") String zone) {
+        this.orderStatRepository = orderStatRepository;
+        this.orderRepository = orderRepository;
+        this.orderShardRouter = orderShardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = ZoneId.of(zone);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (orderStatRepository.count() == 0) {
+            bootstrapFromOrders();
+        }
+        reload();
+        log.info("Estatísticas de pedidos carregadas: {} contadores", persisted.size());
+    }
+
+    // Depois do commit, para que rollbacks não alterem as contagens
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getPrevious() != null) {
+            apply(event.getPrevious(), -1);
+        }
+        if (event.getType() != OrderEventType.DELETED) {
+            apply(event.getCurrent(), 1);
+        }
+        if (event.getType() == OrderEventType.COMPLETED) {
+            add(StatsDimension.COMPLETED_DAY, LocalDate.now(zone).toString(), 1);
+        }
+    }
+
+    public OrderStatsDTO getStats() {
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<Long, Long> byDriver = new TreeMap<>();
+        Map<String, Long> byCity = new TreeMap<>();
+        Map<String, Long> completionsByDay = new TreeMap<>();
+
+        Map<StatKey, Long> values;
+        snapshotLock.readLock().lock();
+        try {
+            values = new HashMap<>(persisted);
+            pendingDeltas.forEach((key, delta) -> values.merge(key, delta.sum(), Long::sum));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        values.forEach((key, total) -> {
+            if (total <= 0) {
+                return;
+            }
+            switch (key.dimension()) {
+                case STATUS -> byStatus.put(key.key(), total);
+                case DRIVER -> byDriver.put(Long.valueOf(key.key()), total);
+                case CITY -> byCity.put(key.key(), total);
+                case COMPLETED_DAY -> completionsByDay.put(key.key(), total);
+            }
+        });
+        return new OrderStatsDTO(byStatus, byDriver, byCity, completionsByDay);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stats.flush-ms:5000}")
+    public void flush() {
+        Map<StatKey, Long> flushed = new HashMap<>();
+        moveDeltas(() -> pendingDeltas.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                flushed.put(key, delta);
+            }
+        }), flushed, 1);
+
+        if (!flushed.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>();
+            flushed.forEach((key, delta) -> batch.add(new Object[]{key.dimension().name(), key.key(), delta}));
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, batch);
+            } catch (RuntimeException e) {
+                // Devolve os deltas para a próxima tentativa
+                moveDeltas(() -> flushed.forEach((key, delta) -> add(key.dimension(), key.key(), delta)), flushed, -1);
+                log.warn("Falha ao gravar estatísticas de pedidos, nova tentativa no próximo ciclo: {}", e.getMessage());
+                return;
+            }
+        }
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void apply(OrderResponseDTO order, long delta) {
+        if (order.getStatus() != null) {
+            add(StatsDimension.STATUS, order.getStatus().name(), delta);
+        }
+        if (order.getDriverId() != null) {
+            add(StatsDimension.DRIVER, String.valueOf(order.getDriverId()), delta);
+        }
+        if (order.getOriginAddress() != null && order.getOriginAddress().getCity() != null) {
+            add(StatsDimension.CITY, order.getOriginAddress().getCity(), delta);
+        }
+    }
+
+    private void add(StatsDimension dimension, String key, long delta) {
+        pendingDeltas.computeIfAbsent(new StatKey(dimension, key), k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Executa a mudança em pendingDeltas e aplica deltas (vezes sign) ao snapshot em memória
+     * sem que uma leitura veja só uma das duas partes.
+     */
+    private void moveDeltas(Runnable change, Map<StatKey, Long> deltas, long sign) {
+        snapshotLock.writeLock().lock();
+        try {
+            change.run();
+            Map<StatKey, Long> snapshot = new HashMap<>(persisted);
+            deltas.forEach((key, delta) -> snapshot.merge(key, sign * delta, Long::sum));
+            persisted = snapshot;
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        Map<StatKey, Long> snapshot = new HashMap<>();
+        for (OrderStat stat : orderStatRepository.findAll()) {
+            snapshot.put(new StatKey(stat.getDimension(), stat.getDimensionKey()), stat.getTotal());
+        }
+        persisted = snapshot;
+    }
+
+    /**
+     * Primeira subida com a tabela vazia: calcula as contagens atuais a partir de orders.
+     * Finalizações por dia começam do zero (não há data de finalização nos pedidos antigos).
+     * Com pedidos particionados, as contagens de cada shard são somadas.
+     */
+    private void bootstrapFromOrders() {
+        Map<StatKey, Long> counts = new HashMap<>();
+        orderShardRouter.onAllShards(() -> {
+            Map<StatKey, Long> shardCounts = new HashMap<>();
+            orderRepository.countByStatus().forEach(row ->
+                    shardCounts.put(new StatKey(StatsDimension.STATUS, String.valueOf(row[0])), (Long) row[1]));
+            orderRepository.countByDriver().forEach(row ->
+                    shardCounts.put(new StatKey(StatsDimension.DRIVER, String.valueOf(row[0])), (Long) row[1]));
+            orderRepository.countByOriginCity().forEach(row ->
+                    shardCounts.put(new StatKey(StatsDimension.CITY, String.valueOf(row[0])), (Long) row[1]));
+            return shardCounts;
+        }).forEach(shardCounts -> shardCounts.forEach((key, total) -> counts.merge(key, total, Long::sum)));
+
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((key, total) -> rows.add(new Object[]{key.dimension().name(), key.key(), total}));
+        // DO NOTHING: se outra instância já populou a tabela, mantém os valores dela
+        jdbcTemplate.batchUpdate(INSERT_INITIAL_SQL, rows);
+        log.info("Tabela order_stats populada a partir de {} contagens", rows.size());
+    }
+}
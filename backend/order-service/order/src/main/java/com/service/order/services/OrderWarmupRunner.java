@@ -0,0 +1,199 @@
+package com.service.order.services;
+
+import com.azure.messaging.servicebus.ServiceBusSenderClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.order.dtos.AddressDTO;
+import com.service.order.dtos.CreateOrderDTO;
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.enums.OrderStatus;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aquece o serviço antes de ele ficar pronto: o Spring Boot só marca o readiness
+ * (/actuator/health/readiness) como ACCEPTING_TRAFFIC depois que os ApplicationRunners terminam.
+ * <p>
+ * Abre todas as conexões dos pools do Hikari, estabelece os links do Service Bus e a conexão com
+ * o Supabase e repete as leituras mais frequentes (consultas, mapeamento para DTO e serialização
+ * JSON/CBOR) por orders.warmup.iterations vezes ou até orders.warmup.max-duration-ms. Nada é
+ * gravado. Falhas só ficam no log: o serviço fica pronto mesmo assim.
+ */
+@Slf4j
+@Component
+public class OrderWarmupRunner implements ApplicationRunner {
+
+    private static final PageRequest WARMUP_PAGE = PageRequest.of(0, 20);
+
+    private final OrderService orderService;
+    private final OrderShardRouter orderShardRouter;
+    private final DataSource dataSource;
+    private final HikariDataSource primaryShardDataSource;
+    private final List<ServiceBusSenderClient> senderClients;
+    private final SupabaseStorageService supabaseStorageService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final Timer warmupTimer;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationMs;
+
+    public OrderWarmupRunner(OrderService orderService,
+                             OrderShardRouter orderShardRouter,
+                             DataSource dataSource,
+                             HikariDataSource primaryShardDataSource,
+                             List<ServiceBusSenderClient> senderClients,
+                             SupabaseStorageService supabaseStorageService,
+                             ObjectMapper objectMapper,
+                             MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+                             MeterRegistry meterRegistry,
+                             @Value("${orders.warmup.enabled:true}") boolean enabled,
+                             @Value("${orders.warmup.iterations:300}") int iterations,
+                             @Value("${orders.warmup.max-duration-ms:30000}") long maxDurationMs) {
+        this.orderService = orderService;
+        this.orderShardRouter = orderShardRouter;
+        this.dataSource = dataSource;
+        this.primaryShardDataSource = primaryShardDataSource;
+        this.senderClients = senderClients;
+        this.supabaseStorageService = supabaseStorageService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborHttpMessageConverter.getObjectMapper();
+        this.warmupTimer = Timer.builder("orders.warmup.duration")
+                .description("Duração do aquecimento antes do readiness")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.info("Aquecimento desativado (orders.warmup.enabled=false)");
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        step("pools de conexões", this::warmConnectionPools);
+        step("Service Bus", () -> senderClients.forEach(ServiceBusSenderClient::createMessageBatch));
+        step("Supabase", supabaseStorageService::warmUp);
+
+        int completed = 0;
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                warmReads();
+                completed++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Aquecimento das leituras interrompido após {} iterações: {}", completed, e.getMessage());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        warmupTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Aquecimento concluído em {} ms ({} de {} iterações de leitura)",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), completed, iterations);
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private void step(String name, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+            log.info("Aquecimento de {} em {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Falha no aquecimento de {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Segura ao mesmo tempo o mínimo de conexões ociosas do pool (minimumIdle), em cada shard, para
+     * que o Hikari as abra agora e não durante as primeiras requisições. As que passam disso ficam
+     * para a demanda real, sem manter o banco com o pool inteiro aberto por instância.
+     */
+    private void warmConnectionPools() {
+        int poolSize = Math.max(1, Math.min(primaryShardDataSource.getMinimumIdle(),
+                primaryShardDataSource.getMaximumPoolSize()));
+        orderShardRouter.onAllShards(() -> {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < poolSize; i++) {
+                    Connection connection = dataSource.getConnection();
+                    connections.add(connection);
+                    connection.isValid(1);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Erro ao abrir conexão: " + e.getMessage(), e);
+            } finally {
+                connections.forEach(this::closeQuietly);
+            }
+            return connections.size();
+        });
+    }
+
+    private void warmReads() {
+        List<OrderResponseDTO> orders = orderService.warmUpReads(WARMUP_PAGE);
+        orders.add(sampleOrder());
+        try {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(orders), OrderResponseDTO[].class);
+            cborMapper.readValue(cborMapper.writeValueAsBytes(orders), OrderResponseDTO[].class);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(sampleCreateOrder()), CreateOrderDTO.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro na serialização de aquecimento: " + e.getMessage(), e);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Erro ao devolver conexão ao pool: {}", e.getMessage());
+        }
+    }
+
+    private static OrderResponseDTO sampleOrder() {
+        OrderResponseDTO order = new OrderResponseDTO();
+        order.setId(0L);
+        order.setCustomerId(0L);
+        order.setStatus(OrderStatus.PENDING);
+        order.setOriginAddress(new AddressDTO("Rua A", "10", "Centro", "Belo Horizonte", -19.92, -43.94));
+        order.setDestinationAddress(new AddressDTO("Rua B", "200", "Savassi", "Belo Horizonte", -19.94, -43.93));
+        order.setDescription("Aquecimento");
+        order.setDistanceKm(2.5);
+        order.setEstimatedDurationMinutes(10);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    private static CreateOrderDTO sampleCreateOrder() {
+        CreateOrderDTO dto = new CreateOrderDTO();
+        dto.setCustomerId(0L);
+        dto.setStatus(OrderStatus.PENDING);
+        dto.setOriginAddress(new AddressDTO("Rua A", "10", "Centro", "Belo Horizonte", -19.92, -43.94));
+        dto.setDestinationAddress(new AddressDTO("Rua B", "200", "Savassi", "Belo Horizonte", -19.94, -43.93));
+        dto.setDescription("Aquecimento");
+        return dto;
+    }
+}
@@ -0,0 +1,72 @@
+package com.service.order.services;
+
+import com.service.order.models.Address;
+import com.service.order.utils.GeoUtils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Calcula a distância em linha reta e a duração estimada entre origem e destino.
+ * As distâncias são memorizadas num cache LRU indexado pelas coordenadas
+ * arredondadas (4 casas decimais, ~11 m), pois muitos pedidos compartilham
+ * os mesmos pontos de coleta e entrega.
+ */
+@Service
+public class RouteEstimator {
+
+    private static final double COORDINATE_SCALE = 10_000;
+
+    private final double averageSpeedKmh;
+    private final Map<RouteKey, Double> distanceCache;
+
+    public RouteEstimator(@Value("${orders.route.average-speed-kmh:25}") double averageSpeedKmh,
+                          @Value("${orders.route.cache-size:10000}") int cacheSize) {
+        this.averageSpeedKmh = averageSpeedKmh;
+        this.distanceCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, Double> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public record RouteEstimate(double distanceKm, int estimatedDurationMinutes) {
+    }
+
+    private record RouteKey(long originLat, long originLon, long destinationLat, long destinationLon) {
+    }
+
+    /**
+     * @return a estimativa da rota, ou null se algum dos endereços faltar ou não tiver
+     * coordenadas válidas. As colunas de coordenadas são double e valem (0, 0) quando não
+     * foram informadas, então esse ponto também é tratado como ausente.
+     */
+    public RouteEstimate estimate(Address origin, Address destination) {
+        if (!hasCoordinates(origin) || !hasCoordinates(destination)) {
+            return null;
+        }
+        RouteKey key = new RouteKey(
+                Math.round(origin.getLatitude() * COORDINATE_SCALE),
+                Math.round(origin.getLongitude() * COORDINATE_SCALE),
+                Math.round(destination.getLatitude() * COORDINATE_SCALE),
+                Math.round(destination.getLongitude() * COORDINATE_SCALE));
+
+        double distanceKm = distanceCache.computeIfAbsent(key, k -> GeoUtils.haversineKm(
+                k.originLat() / COORDINATE_SCALE, k.originLon() / COORDINATE_SCALE,
+                k.destinationLat() / COORDINATE_SCALE, k.destinationLon() / COORDINATE_SCALE));
+
+        int minutes = (int) Math.ceil(distanceKm / averageSpeedKmh * 60);
+        return new RouteEstimate(Math.round(distanceKm * 1000) / 1000.0, minutes);
+    }
+
+    private static boolean hasCoordinates(Address address) {
+        return address != null
+                && !(address.getLatitude() == 0 && address.getLongitude() == 0)
+                && GeoUtils.isValidCoordinate(address.getLatitude(), address.getLongitude());
+    }
+}
@@ -0,0 +1,260 @@
+package com.service.order.services;
+
+import com.service.order.config.ShardingProperties;
+import com.service.order.utils.ShardContext;
+import com.service.order.utils.ShardKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Redistribui os buckets de pedidos entre os shards configurados (por exemplo, depois de
+ * adicionar um banco), com o serviço no ar. Ativado por orders.sharding.rebalance=true: roda
+ * ao subir e encerra o processo (ver rebalance-shards.sh).
+ * <p>
+ * Cada bucket é movido assim:
+ * <ol>
+ *   <li>cópia de orders e orders_archive para o destino, com escritas liberadas;</li>
+ *   <li>bucket marcado LOCKED: o UPDATE espera as escritas em andamento no bucket (que seguram a
+ *   linha dele com FOR SHARE) e as seguintes são recusadas (503);</li>
+ *   <li>nova cópia, agora estável, e remoção no destino do que não existe mais na origem;</li>
+ *   <li>bucket passa a apontar para o destino (ACTIVE);</li>
+ *   <li>depois de as instâncias relerem o mapa, as linhas são apagadas da origem.</li>
+ * </ol>
+ * Se o processo parar no meio, basta rodar de novo: buckets LOCKED voltam para ACTIVE na
+ * origem e a cópia é refeita (as cópias parciais no destino são ignoradas nas consultas).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "orders.sharding", name = "rebalance", havingValue = "true")
+public class ShardRebalancer implements ApplicationRunner {
+
+    private static final List<String> TABLES = List.of("orders", "orders_archive");
+    private static final int PAGE_SIZE = 1000;
+
+    public record Move(int bucket, int from, int to) {
+    }
+
+    private final ShardingProperties properties;
+    private final OrderShardRouter router;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext context;
+
+    public ShardRebalancer(ShardingProperties properties,
+                           OrderShardRouter router,
+                           JdbcTemplate jdbcTemplate,
+                           ApplicationContext context) {
+        this.properties = properties;
+        this.router = router;
+        this.jdbcTemplate = jdbcTemplate;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            log.error("Rebalanceamento interrompido: {}", e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    public void rebalance() {
+        if (!properties.isEnabled()) {
+            throw new IllegalStateException("orders.sharding.enabled=false: não há shards para rebalancear");
+        }
+
+        int unlocked = ShardContext.call(0, () -> jdbcTemplate.update(
+                "UPDATE order_shard_buckets SET state = ? WHERE state = ?",
+                OrderShardRouter.STATE_ACTIVE, OrderShardRouter.STATE_LOCKED));
+        if (unlocked > 0) {
+            log.warn("{} buckets bloqueados por um rebalanceamento anterior voltaram a aceitar escritas na origem", unlocked);
+            pause();
+        }
+
+        int[] bucketShards = new int[ShardKeys.BUCKETS];
+        ShardContext.run(0, () -> jdbcTemplate.query("SELECT bucket, shard FROM order_shard_buckets",
+                rs -> {
+                    bucketShards[rs.getInt("bucket")] = rs.getInt("shard");
+                }));
+        List<Move> moves = plan(bucketShards, properties.shardCount());
+        log.info("Rebalanceamento entre {} shards: {} buckets a mover", properties.shardCount(), moves.size());
+
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            long start = System.currentTimeMillis();
+            int rows = moveBucket(move);
+            log.info("Bucket {} movido do shard {} para o {} ({} linhas, {} ms) [{}/{}]",
+                    move.bucket(), move.from(), move.to(), rows, System.currentTimeMillis() - start, i + 1, moves.size());
+        }
+        log.info("Rebalanceamento concluído");
+    }
+
+    /**
+     * Movimentos mínimos para deixar cada shard com BUCKETS / shardCount buckets (os que já
+     * têm mais buckets ficam com a sobra da divisão).
+     */
+    static List<Move> plan(int[] bucketShards, int shardCount) {
+        int[] counts = new int[shardCount];
+        for (int bucket = 0; bucket < bucketShards.length; bucket++) {
+            int shard = bucketShards[bucket];
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalStateException("Bucket " + bucket + " está no shard " + shard
+                        + ", que não está configurado; remover shards não é suportado");
+            }
+            counts[shard]++;
+        }
+
+        int[] targets = new int[shardCount];
+        List<Integer> bySize = IntStream.range(0, shardCount).boxed()
+                .sorted(Comparator.comparingInt((Integer shard) -> counts[shard]).reversed().thenComparing(shard -> shard))
+                .collect(Collectors.toList());
+        for (int i = 0; i < shardCount; i++) {
+            targets[bySize.get(i)] = bucketShards.length / shardCount + (i < bucketShards.length % shardCount ? 1 : 0);
+        }
+
+        List<Move> moves = new ArrayList<>();
+        int receiver = 0;
+        for (int bucket = 0; bucket < bucketShards.length; bucket++) {
+            int from = bucketShards[bucket];
+            if (counts[from] <= targets[from]) {
+                continue;
+            }
+            while (counts[receiver] >= targets[receiver]) {
+                receiver++;
+            }
+            moves.add(new Move(bucket, from, receiver));
+            counts[from]--;
+            counts[receiver]++;
+        }
+        return moves;
+    }
+
+    // -----------------------
+    // Métodos auxiliares
+    // -----------------------
+
+    private int moveBucket(Move move) {
+        copy(move);
+
+        setBucket(move.bucket(), move.from(), OrderShardRouter.STATE_LOCKED);
+        int rows;
+        try {
+            rows = copy(move);
+            deleteMissingAtDestination(move);
+        } catch (RuntimeException e) {
+            setBucket(move.bucket(), move.from(), OrderShardRouter.STATE_ACTIVE);
+            throw e;
+        }
+
+        setBucket(move.bucket(), move.to(), OrderShardRouter.STATE_ACTIVE);
+        pause();
+        for (String table : TABLES) {
+            ShardContext.run(move.from(), () -> jdbcTemplate.update(
+                    "DELETE FROM " + table + " WHERE mod(id, " + ShardKeys.BUCKETS + ") = ?", move.bucket()));
+        }
+        return rows;
+    }
+
+    private int copy(Move move) {
+        int copied = 0;
+        for (String table : TABLES) {
+            copied += copyTable(table, move);
+        }
+        return copied;
+    }
+
+    /**
+     * Copia as linhas do bucket em páginas por id, sobrescrevendo o que já existir no destino.
+     * Colunas geradas (search_vector) são recalculadas pelo banco de destino.
+     */
+    private int copyTable(String table, Move move) {
+        List<String> columns = ShardContext.call(move.from(), () -> jdbcTemplate.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND is_generated = 'NEVER'
+                ORDER BY ordinal_position
+                """, String.class, table));
+        int idIndex = columns.indexOf("id");
+        String columnList = String.join(", ", columns);
+        String select = "SELECT " + columnList + " FROM " + table
+                + " WHERE mod(id, " + ShardKeys.BUCKETS + ") = ? AND id > ? ORDER BY id LIMIT " + PAGE_SIZE;
+        String upsert = "INSERT INTO " + table + " (" + columnList + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ") "
+                + "ON CONFLICT (id) DO UPDATE SET "
+                + columns.stream().filter(column -> !column.equals("id"))
+                        .map(column -> column + " = EXCLUDED." + column)
+                        .collect(Collectors.joining(", "));
+
+        int copied = 0;
+        long lastId = -1;
+        while (true) {
+            long after = lastId;
+            List<Object[]> rows = ShardContext.call(move.from(), () -> jdbcTemplate.query(select, (rs, rowNum) -> {
+                Object[] row = new Object[columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                return row;
+            }, move.bucket(), after));
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            ShardContext.run(move.to(), () -> jdbcTemplate.batchUpdate(upsert, rows));
+            copied += rows.size();
+            lastId = ((Number) rows.get(rows.size() - 1)[idIndex]).longValue();
+        }
+    }
+
+    // Pedidos apagados na origem entre a primeira cópia e o bloqueio
+    private void deleteMissingAtDestination(Move move) {
+        for (String table : TABLES) {
+            String selectIds = "SELECT id FROM " + table + " WHERE mod(id, " + ShardKeys.BUCKETS + ") = ?";
+            Set<Long> source = new HashSet<>(ShardContext.call(move.from(),
+                    () -> jdbcTemplate.queryForList(selectIds, Long.class, move.bucket())));
+            List<Object[]> missing = ShardContext.call(move.to(),
+                            () -> jdbcTemplate.queryForList(selectIds, Long.class, move.bucket()))
+                    .stream()
+                    .filter(id -> !source.contains(id))
+                    .map(id -> new Object[]{id})
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                ShardContext.run(move.to(), () -> jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE id = ?", missing));
+            }
+        }
+    }
+
+    private void setBucket(int bucket, int shard, String state) {
+        ShardContext.run(0, () -> jdbcTemplate.update(
+                "UPDATE order_shard_buckets SET shard = ?, state = ? WHERE bucket = ?", shard, state, bucket));
+        router.refresh();
+    }
+
+    // Tempo para todas as instâncias relerem o mapa de buckets (as leituras seguem o mapa em memória)
+    private void pause() {
+        try {
+            Thread.sleep(2 * properties.getRefreshMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebalanceamento interrompido", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.service.order.services;
+
+import com.service.order.dtos.OrderResponseDTO;
+import com.service.order.models.Order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Projeção parcial de pedidos para o parâmetro fields= (sparse fieldsets).
+ * Monta a resposta diretamente a partir da entidade apenas com as propriedades
+ * pedidas, sem passar pelo OrderResponseDTO completo.
+ */
+@Service
+public class SparseOrderProjector {
+
+    private enum Field {
+        ID("id", Order::getId, OrderResponseDTO::getId),
+        CUSTOMER_ID("customerId", Order::getCustomerId, OrderResponseDTO::getCustomerId),
+        DRIVER_ID("driverId", Order::getDriverId, OrderResponseDTO::getDriverId),
+        STATUS("status", Order::getStatus, OrderResponseDTO::getStatus),
+        ORIGIN_ADDRESS("originAddress", order -> OrderService.toAddressDTO(order.getOriginAddress()), OrderResponseDTO::getOriginAddress),
+        DESTINATION_ADDRESS("destinationAddress", order -> OrderService.toAddressDTO(order.getDestinationAddress()), OrderResponseDTO::getDestinationAddress),
+        DESCRIPTION("description", Order::getDescription, OrderResponseDTO::getDescription),
+        IMAGE_URL("imageUrl", Order::getImageUrl, OrderResponseDTO::getImageUrl),
+        DISTANCE_KM("distanceKm", Order::getDistanceKm, OrderResponseDTO::getDistanceKm),
+        ESTIMATED_DURATION_MINUTES("estimatedDurationMinutes", Order::getEstimatedDurationMinutes, OrderResponseDTO::getEstimatedDurationMinutes),
+        CREATED_AT("createdAt", Order::getCreatedAt, OrderResponseDTO::getCreatedAt),
+        COMPLETED_AT("completedAt", Order::getCompletedAt, OrderResponseDTO::getCompletedAt);
+
+        private final String jsonName;
+        private final Function<Order, Object> accessor;
+        private final Function<OrderResponseDTO, Object> dtoAccessor;
+
+        Field(String jsonName, Function<Order, Object> accessor, Function<OrderResponseDTO, Object> dtoAccessor) {
+            this.jsonName = jsonName;
+            this.accessor = accessor;
+            this.dtoAccessor = dtoAccessor;
+        }
+    }
+
+    private static final Map<String, Field> FIELDS_BY_NAME = Arrays.stream(Field.values())
+            .collect(Collectors.toMap(field -> field.jsonName, Function.identity()));
+
+    /**
+     * @param fields lista separada por vírgulas, ex.: "id,status,driverId"
+     * @throws ResponseStatusException (400) se algum campo não existir
+     */
+    public Function<Order, Map<String, Object>> projection(String fields) {
+        return project(select(fields), field -> field.accessor);
+    }
+
+    /**
+     * Mesma projeção a partir do OrderResponseDTO, para leituras que já recebem o DTO pronto
+     * (busca por ID, compartilhada entre requisições simultâneas).
+     */
+    public Function<OrderResponseDTO, Map<String, Object>> dtoProjection(String fields) {
+        return project(select(fields), field -> field.dtoAccessor);
+    }
+
+    private static Set<Field> select(String fields) {
+        Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Field field = FIELDS_BY_NAME.get(trimmed);
+            if (field == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo inválido em fields: " + trimmed);
+            }
+            selected.add(field);
+        }
+        if (selected.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O parâmetro fields deve conter ao menos um campo.");
+        }
+        return selected;
+    }
+
+    private static <T> Function<T, Map<String, Object>> project(Set<Field> selected, Function<Field, Function<T, Object>> accessorOf) {
+        return order -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (Field field : selected) {
+                result.put(field.jsonName, accessorOf.apply(field).apply(order));
+            }
+            return result;
+        };
+    }
+}
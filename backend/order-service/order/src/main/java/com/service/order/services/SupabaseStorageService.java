@@ -1,9 +1,11 @@
 package com.service.order.services;
 
+import com.service.order.utils.ContentHash;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -11,10 +13,14 @@ import org.springframework.web.reactive.function.client.WebClient;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
-import reactor.core.publisher.Mono;
-
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 
@@ -22,10 +28,26 @@ import java.util.Map;
 @Slf4j
 public class SupabaseStorageService {
 
+    // Tamanho de chunk exigido pelo upload resumível (TUS) do Supabase Storage
+    public static final int RESUMABLE_CHUNK_SIZE = 6 * 1024 * 1024;
+
+    private static final String TUS_VERSION = "1.0.0";
+    // URLs de upload resumível do Supabase expiram em 24 horas
+    private static final Duration RESUMABLE_UPLOAD_TTL = Duration.ofHours(23);
+
     private final List<String> allowedContentTypes = List.of("image/jpeg", "image/png", "image/webp");
 
     private final WebClient webClient;
 
+    // Uploads resumíveis interrompidos, por objeto: um novo envio do mesmo conteúdo continua de onde parou
+    private final Map<String, PendingUpload> pendingUploads = new ConcurrentHashMap<>();
+
+    @Value("${supabase.resumable-threshold-bytes:" + RESUMABLE_CHUNK_SIZE + "}")
+    private long resumableThresholdBytes;
+
+    @Value("${supabase.resumable-max-attempts:3}")
+    private int resumableMaxAttempts;
+
     @Value("${supabase.orderphotos-bucket-name}")
     private String userPhotosBucketName;
 
@@ -37,25 +59,60 @@ public class SupabaseStorageService {
         log.info("[SupabaseStorageService] Inicializado com bucket='{}', supabaseCode='{}'", userPhotosBucketName, supabaseCode);
     }
 
-    public String uploadOrUpdateUserPhoto(MultipartFile file, String fileName) throws IOException {
+    /**
+     * Envia a foto para o bucket, a menos que o objeto já tenha exatamente esse conteúdo (retentativa
+     * de um envio que chegou ao Supabase): o hash do conteúdo (calculado pelo chamador, com partes de
+     * RESUMABLE_CHUNK_SIZE) é comparado com o ETag.
+     * Arquivos acima de supabase.resumable-threshold-bytes vão em chunks pelo upload resumível.
+     */
+    public String uploadOrUpdateUserPhoto(MultipartFile file, ContentHash hash, String fileName) throws IOException {
         validateImage(file);
 
         final String fileUrl = "/storage/v1/object/" + userPhotosBucketName + "/" + fileName;
-        log.info("Verificando se a imagem '{}' já existe no bucket '{}'", fileName, userPhotosBucketName);
+        log.info("Verificando se a imagem '{}' já existe no bucket '{}' (md5={}, {} bytes)", fileName, userPhotosBucketName, hash.getMd5(), hash.getSize());
 
+        ResponseEntity<Void> existing;
         try {
-            webClient.head()
+            existing = webClient.head()
                     .uri(fileUrl)
                     .retrieve()
                     .toBodilessEntity()
                     .block();
+        } catch (Exception e) {
+            existing = null;
+        }
+
+        if (existing != null && hash.matchesEtag(existing.getHeaders().getETag())) {
+            // Mesmo conteúdo já validado e armazenado: não decodifica nem envia de novo
+            log.info("Imagem '{}' já está no bucket '{}' com o mesmo conteúdo. Upload ignorado.", fileName, userPhotosBucketName);
+            return publicUrl(userPhotosBucketName, fileName);
+        }
 
+        validateImageContent(file);
+        if (hash.getSize() > resumableThresholdBytes) {
+            return uploadResumable(file, fileName, userPhotosBucketName, hash);
+        }
+        if (existing != null) {
             log.info("Imagem '{}' encontrada no bucket '{}'. Realizando atualização...", fileName, userPhotosBucketName);
             return updateImage(file, fileName, userPhotosBucketName);
+        }
+        log.info("Imagem '{}' não encontrada no bucket '{}'. Realizando upload... test: {}", fileName, userPhotosBucketName, supabaseCode);
+        return uploadImage(file, fileName, userPhotosBucketName);
+    }
 
+    /**
+     * Abre a conexão TLS com o Supabase antes do primeiro upload real (aquecimento na subida).
+     * Consulta um objeto que não existe: a resposta não importa.
+     */
+    public void warmUp() {
+        try {
+            webClient.head()
+                    .uri("/storage/v1/object/" + userPhotosBucketName + "/warmup")
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(Duration.ofSeconds(5));
         } catch (Exception e) {
-            log.info("Imagem '{}' não encontrada no bucket '{}'. Realizando upload... test: {}", fileName, userPhotosBucketName, supabaseCode);
-            return uploadImage(file, fileName, userPhotosBucketName);
+            // 404 esperado; falhas de rede aparecem no primeiro upload real
         }
     }
 
@@ -72,7 +129,7 @@ public class SupabaseStorageService {
                     .bodyValue(fileBytes)
                     .retrieve()
                     .bodyToMono(String.class)
-                    .map(response -> "https://" + supabaseCode + ".supabase.co/storage/v1/object/public/" + bucketName + "/" + fileName)
+                    .map(response -> publicUrl(bucketName, fileName))
                     .block();
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             log.error("[SupabaseStorageService] Erro ao atualizar imagem: status={}, body={}, endpoint={}, bucket={}, supabase_code: {}, fileName={}, contentType={}", e.getRawStatusCode(), e.getResponseBodyAsString(), endpoint, bucketName, supabaseCode, fileName, contentType);
@@ -96,8 +153,7 @@ public class SupabaseStorageService {
                     .bodyValue(fileBytes)
                     .retrieve()
                     .bodyToMono(String.class)
-                    .map(response -> "https://" + supabaseCode + ".supabase.co/storage/v1/object/public/" + bucketName + "/"
-                            + fileName)
+                    .map(response -> publicUrl(bucketName, fileName))
                     .block();
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             log.error("[SupabaseStorageService] Erro ao fazer upload: status={}, body={}, endpoint={}, bucket={}, fileName={}, contentType={}", e.getRawStatusCode(), e.getResponseBodyAsString(), endpoint, bucketName, fileName, contentType);
@@ -110,6 +166,129 @@ public class SupabaseStorageService {
     
 
 
+    /**
+     * Upload resumível (protocolo TUS) em chunks de RESUMABLE_CHUNK_SIZE. Cada chunk que falha é
+     * reenviado a partir do offset confirmado pelo Supabase; se as tentativas se esgotarem, o
+     * upload fica registrado e o próximo envio do mesmo conteúdo continua dele.
+     */
+    private String uploadResumable(MultipartFile file, String fileName, String bucketName, ContentHash hash) throws IOException {
+        String objectKey = bucketName + "/" + fileName;
+        String contentType = file.getContentType();
+        pendingUploads.values().removeIf(upload -> upload.createdAt().plus(RESUMABLE_UPLOAD_TTL).isBefore(Instant.now()));
+
+        PendingUpload upload = pendingUploads.get(objectKey);
+        long offset = -1;
+        if (upload != null && upload.md5().equals(hash.getMd5())) {
+            offset = currentOffset(upload.location());
+        }
+        if (offset < 0) {
+            upload = new PendingUpload(createResumableUpload(fileName, bucketName, contentType, hash.getSize()), hash.getMd5(), Instant.now());
+            pendingUploads.put(objectKey, upload);
+            offset = 0;
+        } else {
+            log.info("Retomando upload resumível de '{}' a partir do byte {} de {}", fileName, offset, hash.getSize());
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            in.skipNBytes(offset);
+            while (offset < hash.getSize()) {
+                byte[] chunk = in.readNBytes((int) Math.min(RESUMABLE_CHUNK_SIZE, hash.getSize() - offset));
+                offset = sendChunk(upload.location(), offset, chunk, fileName);
+            }
+        }
+
+        pendingUploads.remove(objectKey);
+        log.info("Upload resumível de '{}' concluído no bucket '{}' ({} bytes)", fileName, bucketName, hash.getSize());
+        return publicUrl(bucketName, fileName);
+    }
+
+    private String createResumableUpload(String fileName, String bucketName, String contentType, long size) {
+        String metadata = "bucketName " + base64(bucketName)
+                + ",objectName " + base64(fileName)
+                + ",contentType " + base64(contentType);
+        try {
+            ResponseEntity<Void> response = webClient.post()
+                    .uri("/storage/v1/upload/resumable")
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .header("Upload-Length", String.valueOf(size))
+                    .header("Upload-Metadata", metadata)
+                    .header("x-upsert", "true")
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+            String location = response != null ? response.getHeaders().getFirst(HttpHeaders.LOCATION) : null;
+            if (location == null) {
+                throw new IllegalStateException("Supabase não devolveu a URL do upload resumível");
+            }
+            return location;
+        } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
+            log.error("[SupabaseStorageService] Erro ao criar upload resumível: status={}, body={}, bucket={}, fileName={}", e.getRawStatusCode(), e.getResponseBodyAsString(), bucketName, fileName);
+            throw new RuntimeException("Erro ao enviar imagem para o Supabase", e);
+        }
+    }
+
+    /**
+     * Envia um chunk e devolve o novo offset. Em caso de falha consulta o offset no Supabase:
+     * se o chunk chegou, segue; se não, reenvia.
+     */
+    private long sendChunk(String location, long offset, byte[] chunk, String fileName) {
+        RuntimeException lastError = null;
+        for (int attempt = 1; attempt <= resumableMaxAttempts; attempt++) {
+            try {
+                ResponseEntity<Void> response = webClient.patch()
+                        .uri(location)
+                        .header("Tus-Resumable", TUS_VERSION)
+                        .header("Upload-Offset", String.valueOf(offset))
+                        .header(HttpHeaders.CONTENT_TYPE, "application/offset+octet-stream")
+                        .bodyValue(chunk)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .block();
+                String confirmed = response != null ? response.getHeaders().getFirst("Upload-Offset") : null;
+                return confirmed != null ? Long.parseLong(confirmed) : offset + chunk.length;
+            } catch (RuntimeException e) {
+                lastError = e;
+                long current = currentOffset(location);
+                if (current == offset + chunk.length) {
+                    return current;
+                }
+                if (current != offset) {
+                    break;
+                }
+                log.warn("Falha ao enviar chunk de '{}' no offset {} (tentativa {}/{}): {}", fileName, offset, attempt, resumableMaxAttempts, e.getMessage());
+            }
+        }
+        log.error("[SupabaseStorageService] Upload resumível de '{}' interrompido no offset {}", fileName, offset);
+        throw new RuntimeException("Erro ao enviar imagem para o Supabase", lastError);
+    }
+
+    // Offset já recebido pelo Supabase; -1 se o upload não existe mais
+    private long currentOffset(String location) {
+        try {
+            ResponseEntity<Void> response = webClient.head()
+                    .uri(location)
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+            String offset = response != null ? response.getHeaders().getFirst("Upload-Offset") : null;
+            return offset != null ? Long.parseLong(offset) : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private String publicUrl(String bucketName, String fileName) {
+        return "https://" + supabaseCode + ".supabase.co/storage/v1/object/public/" + bucketName + "/" + fileName;
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record PendingUpload(String location, String md5, Instant createdAt) {
+    }
+
     private void validateImage(MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("Arquivo de imagem está vazio ou é nulo.");
@@ -118,7 +297,10 @@ public class SupabaseStorageService {
         if (!allowedContentTypes.contains(file.getContentType())) {
             throw new IllegalArgumentException("Tipo de imagem inválido. Permitidos: JPEG, PNG ou WEBP.");
         }
+    }
 
+    // Decodifica a imagem inteira: só roda quando o conteúdo ainda não está no bucket
+    private void validateImageContent(MultipartFile file) throws IOException {
         BufferedImage image;
         try {
             image = ImageIO.read(file.getInputStream());
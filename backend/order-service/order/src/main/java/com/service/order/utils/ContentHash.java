@@ -0,0 +1,103 @@
+package com.service.order.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hash do conteúdo de um arquivo calculado em uma única leitura do stream, no formato do ETag
+ * que o Supabase Storage (S3) devolve para o objeto:
+ * <ul>
+ *   <li>upload simples: md5 do conteúdo;</li>
+ *   <li>upload resumível: md5 da concatenação dos md5 de cada parte, seguido de "-" e o
+ *   número de partes (partes com o tamanho do chunk enviado).</li>
+ * </ul>
+ * O MD5 aqui só serve para comparar com o ETag, não como garantia de integridade contra
+ * conteúdo malicioso.
+ */
+public final class ContentHash {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long size;
+    private final String md5;
+    private final String multipartEtag;
+
+    private ContentHash(long size, String md5, String multipartEtag) {
+        this.size = size;
+        this.md5 = md5;
+        this.multipartEtag = multipartEtag;
+    }
+
+    public static ContentHash of(InputStream in, int partSize) throws IOException {
+        MessageDigest whole = md5();
+        MessageDigest part = md5();
+        MessageDigest parts = md5();
+        int partCount = 0;
+        long partBytes = 0;
+        long size = 0;
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            whole.update(buffer, 0, read);
+            size += read;
+            int offset = 0;
+            while (offset < read) {
+                int length = (int) Math.min(read - offset, partSize - partBytes);
+                part.update(buffer, offset, length);
+                partBytes += length;
+                offset += length;
+                if (partBytes == partSize) {
+                    parts.update(part.digest());
+                    partCount++;
+                    partBytes = 0;
+                }
+            }
+        }
+        if (partBytes > 0 || partCount == 0) {
+            parts.update(part.digest());
+            partCount++;
+        }
+
+        HexFormat hex = HexFormat.of();
+        return new ContentHash(size, hex.formatHex(whole.digest()), hex.formatHex(parts.digest()) + "-" + partCount);
+    }
+
+    /**
+     * Compara com o header ETag (aspas e prefixo W/ são ignorados).
+     */
+    public boolean matchesEtag(String etag) {
+        if (etag == null || etag.isBlank()) {
+            return false;
+        }
+        String value = etag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "").toLowerCase();
+        return value.equals(md5) || value.equals(multipartEtag);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getMd5() {
+        return md5;
+    }
+
+    public String getMultipartEtag() {
+        return multipartEtag;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponível na JVM", e);
+        }
+    }
+}
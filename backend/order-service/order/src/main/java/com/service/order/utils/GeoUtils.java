@@ -0,0 +1,35 @@
+package com.service.order.utils;
+
+public final class GeoUtils {
+
+    // Raio médio da Terra em quilômetros (mesmo valor usado no geoUtils.js do tracking-service)
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Quilômetros por grau de latitude
+    public static final double KM_PER_DEGREE = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Calcula a distância entre dois pontos usando a fórmula de Haversine.
+     *
+     * @return distância em quilômetros
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static boolean isValidCoordinate(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+}
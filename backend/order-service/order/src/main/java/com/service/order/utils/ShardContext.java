@@ -0,0 +1,42 @@
+package com.service.order.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard de banco usado pela thread atual. Lido pelo ShardRoutingDataSource ao obter uma
+ * conexão; sem shard definido, as conexões vão para o shard 0 (spring.datasource).
+ * <p>
+ * O shard precisa ser definido antes de abrir a transação: a conexão é obtida no início dela.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.service.order.utils;
+
+/**
+ * Chaves de particionamento dos pedidos. Os pedidos são distribuídos em BUCKETS buckets
+ * lógicos, e cada bucket mora em um shard físico (tabela order_shard_buckets). O bucket faz
+ * parte do id (id % BUCKETS), então uma busca por id vai direto ao shard certo, e mover
+ * um bucket de shard não muda nenhum id.
+ * <p>
+ * Pedidos novos caem no bucket do cliente (hash do customerId), mantendo os pedidos de um
+ * mesmo cliente juntos. Ids anteriores ao particionamento ficam no bucket id % BUCKETS.
+ */
+public final class ShardKeys {
+
+    public static final int BUCKETS = 1024;
+    // Cada shard gera a parte sequencial do id numa classe de resto própria (INCREMENT BY MAX_SHARDS)
+    public static final int MAX_SHARDS = 64;
+
+    private ShardKeys() {
+    }
+
+    public static int bucketOf(long orderId) {
+        return (int) Math.floorMod(orderId, (long) BUCKETS);
+    }
+
+    public static int bucketForCustomer(Long customerId) {
+        if (customerId == null) {
+            return 0;
+        }
+        // Espalha ids de cliente sequenciais entre os buckets
+        long mixed = customerId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(mixed ^ (mixed >>> 32), BUCKETS);
+    }
+
+    public static long orderId(long sequence, int bucket) {
+        return Math.multiplyExact(sequence, (long) BUCKETS) + bucket;
+    }
+}
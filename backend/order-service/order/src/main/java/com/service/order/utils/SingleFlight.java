@@ -0,0 +1,110 @@
+package com.service.order.utils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas simultâneas para a mesma chave: a primeira executa o loader e as
+ * demais aguardam e recebem o mesmo resultado (ou a mesma exceção). Nada fica em
+ * cache; a chave é liberada assim que a chamada em andamento termina.
+ * <p>
+ * Quem está aguardando nunca cancela a chamada em andamento: se for interrompido,
+ * apenas desiste da espera. Se a espera passar de maxWait, executa o loader por conta própria.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing, loader);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            return call.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Espera pela chamada em andamento foi interrompida");
+        } catch (TimeoutException e) {
+            return loader.get();
+        } catch (ExecutionException e) {
+            // Repassa a mesma exceção do loader (ex.: ResourceNotFoundException) para quem aguardava
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Solta a chamada em andamento para a chave: quem chegar depois executa uma nova carga em vez
+     * de receber um valor lido antes de uma escrita. Quem já estava aguardando recebe o resultado antigo.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Fração das chamadas que foram atendidas por uma consulta já em andamento.
+     */
+    public double collapseRatio() {
+        long collapsedCalls = collapsed.sum();
+        long total = leaders.sum() + collapsedCalls;
+        return total == 0 ? 0 : (double) collapsedCalls / total;
+    }
+}
@@ -0,0 +1,20 @@
+-- Índice de busca textual de pedidos (GET /orders/search).
+-- Executado a cada subida depois do Hibernate (spring.jpa.defer-datasource-initialization);
+-- todos os comandos são idempotentes. A extensão unaccent exige superusuário e é criada uma
+-- única vez na inicialização do banco (backend/postgres/init-extensions.sql).
+
+-- unaccent() é STABLE; colunas geradas exigem funções IMMUTABLE, daí o wrapper com o dicionário fixo
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT public.unaccent('public.unaccent', $1) $$;
+
+-- Endereços pesam mais (A) que a descrição (B) no ranking.
+-- O Postgres mantém a coluna a cada INSERT/UPDATE, e o índice GIN acompanha
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('portuguese', f_unaccent(
+        coalesce(origin_street, '') || ' ' || coalesce(origin_neighborhood, '') || ' ' || coalesce(origin_city, '') || ' ' ||
+        coalesce(destination_street, '') || ' ' || coalesce(destination_neighborhood, '') || ' ' || coalesce(destination_city, ''))), 'A') ||
+    setweight(to_tsvector('portuguese', f_unaccent(coalesce(description, ''))), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_orders_search_vector ON orders USING GIN (search_vector);
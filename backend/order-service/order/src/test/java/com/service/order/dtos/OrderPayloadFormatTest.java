@@ -0,0 +1,75 @@
+package com.service.order.dtos;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.service.order.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderPayloadFormatTest {
+
+	private static final int PAGE_SIZE = 50;
+	private static final TypeReference<List<OrderResponseDTO>> ORDER_LIST = new TypeReference<>() {
+	};
+
+	private final ObjectMapper json = new ObjectMapper();
+	private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+	@Test
+	void cborRoundTripsOrdersAndIsSmallerThanJson() throws Exception {
+		List<OrderResponseDTO> page = samplePage();
+
+		byte[] jsonBytes = json.writeValueAsBytes(page);
+		byte[] cborBytes = cbor.writeValueAsBytes(page);
+
+		List<OrderResponseDTO> decoded = cbor.readValue(cborBytes, ORDER_LIST);
+		// AddressDTO não implementa equals; compara pela forma serializada
+		assertArrayEquals(jsonBytes, json.writeValueAsBytes(decoded));
+		assertTrue(cborBytes.length < jsonBytes.length);
+	}
+
+	@Test
+	void cborRoundTripsCreateOrderPayload() throws Exception {
+		CreateOrderDTO dto = new CreateOrderDTO();
+		dto.setCustomerId(7L);
+		dto.setStatus(OrderStatus.PENDING);
+		dto.setOriginAddress(new AddressDTO("Rua A", "10", "Centro", "Belo Horizonte", -19.92, -43.94));
+		dto.setDestinationAddress(new AddressDTO("Rua B", "200", "Savassi", "Belo Horizonte", -19.94, -43.93));
+		dto.setDescription("Caixa pequena");
+
+		CreateOrderDTO decoded = cbor.readValue(cbor.writeValueAsBytes(dto), CreateOrderDTO.class);
+		assertEquals(dto.getCustomerId(), decoded.getCustomerId());
+		assertEquals(dto.getStatus(), decoded.getStatus());
+		assertEquals(dto.getDestinationAddress().getLatitude(), decoded.getDestinationAddress().getLatitude());
+	}
+
+	private static List<OrderResponseDTO> samplePage() {
+		Random random = new Random(42);
+		List<OrderResponseDTO> page = new ArrayList<>();
+		for (long i = 0; i < PAGE_SIZE; i++) {
+			OrderResponseDTO order = new OrderResponseDTO();
+			order.setId(i + 1);
+			order.setCustomerId(1000 + i);
+			order.setDriverId(i % 3 == 0 ? null : 500 + i);
+			order.setStatus(OrderStatus.values()[(int) (i % OrderStatus.values().length)]);
+			order.setOriginAddress(new AddressDTO("Rua " + i, String.valueOf(i * 7), "Centro", "Belo Horizonte",
+					-19.92 + random.nextDouble() / 10, -43.94 + random.nextDouble() / 10));
+			order.setDestinationAddress(new AddressDTO("Avenida " + i, String.valueOf(i * 3), "Savassi", "Belo Horizonte",
+					-19.92 + random.nextDouble() / 10, -43.94 + random.nextDouble() / 10));
+			order.setDescription("Pedido de teste " + i);
+			order.setImageUrl("https://example.supabase.co/storage/v1/object/public/orders/" + i + ".jpg");
+			order.setDistanceKm(random.nextDouble() * 20);
+			order.setEstimatedDurationMinutes(random.nextInt(60));
+			page.add(order);
+		}
+		return page;
+	}
+}
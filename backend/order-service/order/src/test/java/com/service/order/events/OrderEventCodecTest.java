@@ -0,0 +1,76 @@
+package com.service.order.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.order.dtos.OrderEventMessage;
+import com.service.order.dtos.OrderFinishedEventDTO;
+import com.service.order.enums.OrderLifecycleEventType;
+import com.service.order.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventCodecTest {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final ObjectMapper json = new ObjectMapper();
+	private final OrderEventCodec codec = new OrderEventCodec();
+
+	@Test
+	void binaryEventsRoundTripAndAreSmallerThanJson() throws Exception {
+		List<OrderEventMessage> events = sampleEvents();
+		List<OrderFinishedEventDTO> finished = events.stream().map(OrderEventCodecTest::toFinishedEvent).toList();
+
+		int jsonBytes = 0;
+		int cborBytes = 0;
+		for (int i = 0; i < events.size(); i++) {
+			jsonBytes += json.writeValueAsBytes(finished.get(i)).length;
+			cborBytes += codec.encode(events.get(i)).length;
+		}
+		byte[] batch = codec.encodeBatch(events);
+		OrderEventMessage oneEvent = events.get(0);
+
+		assertEquals(oneEvent, codec.decode(codec.encode(oneEvent), OrderEventCodec.SCHEMA_VERSION));
+		assertEquals(events, codec.decodeBatch(batch, OrderEventCodec.SCHEMA_VERSION));
+		assertTrue(cborBytes < jsonBytes);
+		assertTrue(batch.length < cborBytes);
+	}
+
+	@Test
+	void rejectsUnknownSchemaVersion() {
+		byte[] payload = codec.encode(sampleEvents().get(0));
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(payload, OrderEventCodec.SCHEMA_VERSION + 1));
+	}
+
+	// Mesmo pedido no formato JSON publicado hoje em order.finished
+	private static OrderFinishedEventDTO toFinishedEvent(OrderEventMessage event) {
+		return new OrderFinishedEventDTO(event.getOrderId(),
+				"Rua " + event.getOrderId() + ", " + event.getOrderId() * 7 + " - Centro, Belo Horizonte",
+				"Avenida " + event.getOrderId() + ", " + event.getOrderId() * 3 + " - Savassi, Belo Horizonte",
+				event.getDescription(), "cliente" + event.getCustomerId() + "@example.com", event.getDistanceKm(),
+				"cliente" + event.getCustomerId() + "@example.com", "motorista" + event.getDriverId() + "@example.com",
+				"fcm-token-" + event.getCustomerId(), "Pedido entregue",
+				"Seu pedido #" + event.getOrderId() + " foi entregue com sucesso!");
+	}
+
+	private static List<OrderEventMessage> sampleEvents() {
+		Random random = new Random(42);
+		OrderLifecycleEventType[] types = OrderLifecycleEventType.values();
+		List<OrderEventMessage> events = new ArrayList<>();
+		for (long i = 0; i < BATCH_SIZE; i++) {
+			events.add(new OrderEventMessage(types[(int) (i % types.length)], i + 1, 1000 + i, 500 + i % 20,
+					OrderStatus.DELIVERIED, 1_760_000_000_000L + i * 1000,
+					-19.92 + random.nextDouble() / 10, -43.94 + random.nextDouble() / 10,
+					-19.92 + random.nextDouble() / 10, -43.94 + random.nextDouble() / 10,
+					random.nextDouble() * 20, "Pedido de teste " + i,
+					"https://example.supabase.co/storage/v1/object/public/orders/" + i + ".jpg", "evento-" + i));
+		}
+		return events;
+	}
+}
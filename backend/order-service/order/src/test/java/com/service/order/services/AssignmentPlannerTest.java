@@ -0,0 +1,105 @@
+package com.service.order.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssignmentPlannerTest {
+
+	// Região aproximada da Grande Belo Horizonte
+	private static final double BASE_LAT = -19.92;
+	private static final double BASE_LON = -43.94;
+
+	private final AssignmentPlanner planner = new AssignmentPlanner(0.02, 0.5, 10);
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterEach
+	void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	void assignsTheNearestFreeDriver() {
+		List<AssignmentPlanner.Assignment> assignments = planner.plan(
+				List.of(order(1, 0, 0)),
+				List.of(driver(10, 0.03, 0), driver(11, 0.01, 0), driver(12, 0, 0.05)),
+				pool);
+
+		assertEquals(1, assignments.size());
+		assertEquals(11L, assignments.get(0).driverId());
+		assertTrue(assignments.get(0).pickupDistanceKm() < 1.2);
+	}
+
+	@Test
+	void prefersACloserDriverInTheNextCell() {
+		// O pedido fica na borda da célula: o motorista da célula vizinha está mais perto
+		// que o da mesma célula
+		List<AssignmentPlanner.Assignment> assignments = planner.plan(
+				List.of(order(1, 0.0199, 0.001)),
+				List.of(driver(10, 0.001, 0.001), driver(11, 0.0201, 0.001)),
+				pool);
+
+		assertEquals(11L, assignments.get(0).driverId());
+	}
+
+	@Test
+	void ignoresDriversBeyondTheMaximumPickupDistance() {
+		// 0.2° de latitude ≈ 22 km
+		List<AssignmentPlanner.Assignment> assignments = planner.plan(
+				List.of(order(1, 0, 0)),
+				List.of(driver(10, 0.2, 0)),
+				pool);
+
+		assertTrue(assignments.isEmpty());
+	}
+
+	@Test
+	void assignsEachDriverAtMostOnceAcrossRegions() {
+		// Pedidos dos dois lados da divisa entre duas regiões (processadas em paralelo)
+		// disputando os mesmos motoristas, que ficam sobre a divisa
+		List<AssignmentPlanner.OrderPoint> orders = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			double dLon = i % 2 == 0 ? 0.43 - (i / 8) * 0.005 : 0.45 + (i / 8) * 0.005;
+			orders.add(order(i, (i % 8) * 0.01, dLon));
+		}
+		List<AssignmentPlanner.DriverPoint> drivers = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			drivers.add(driver(100 + i, 0.021, 0.441 + i * 0.0005));
+		}
+
+		List<AssignmentPlanner.Assignment> assignments = planner.plan(orders, drivers, pool);
+
+		Set<Long> assignedDrivers = new HashSet<>();
+		Set<Long> assignedOrders = new HashSet<>();
+		assignments.forEach(a -> {
+			assignedDrivers.add(a.driverId());
+			assignedOrders.add(a.orderId());
+		});
+		assertEquals(10, assignments.size());
+		assertEquals(assignments.size(), assignedDrivers.size());
+		assertEquals(assignments.size(), assignedOrders.size());
+		assertTrue(assignments.stream().allMatch(a -> a.pickupDistanceKm() <= 10));
+	}
+
+	@Test
+	void returnsNothingWithoutOrdersOrDrivers() {
+		assertTrue(planner.plan(List.of(), List.of(driver(10, 0, 0)), pool).isEmpty());
+		assertTrue(planner.plan(List.of(order(1, 0, 0)), List.of(), pool).isEmpty());
+	}
+
+	private static AssignmentPlanner.OrderPoint order(long id, double dLat, double dLon) {
+		return new AssignmentPlanner.OrderPoint(id, BASE_LAT + dLat, BASE_LON + dLon);
+	}
+
+	private static AssignmentPlanner.DriverPoint driver(long id, double dLat, double dLon) {
+		return new AssignmentPlanner.DriverPoint(id, BASE_LAT + dLat, BASE_LON + dLon);
+	}
+}
@@ -0,0 +1,109 @@
+package com.service.order.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationIngestBufferTest {
+
+	private static final int PRODUCERS = 4;
+	private static final int ORDERS_PER_PRODUCER = 25;
+	private static final int BATCHES_PER_ORDER = 5;
+	private static final int POINTS_PER_BATCH = 50;
+	private static final long BASE_TIME = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+	@Test
+	void ingestsAllPointsAndKeepsNewestPosition() throws Exception {
+		long totalPoints = (long) PRODUCERS * ORDERS_PER_PRODUCER * BATCHES_PER_ORDER * POINTS_PER_BATCH;
+		AtomicLong persisted = new AtomicLong();
+
+		// Fila pequena: os produtores esbarram na fila cheia e reenviam o lote
+		LocationIngestBuffer buffer = new LocationIngestBuffer(500, 100, batch -> persisted.addAndGet(batch.size()));
+
+		ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+		CountDownLatch done = new CountDownLatch(PRODUCERS);
+		for (int p = 0; p < PRODUCERS; p++) {
+			int producer = p;
+			producers.submit(() -> {
+				try {
+					for (int b = 0; b < BATCHES_PER_ORDER; b++) {
+						for (int o = 0; o < ORDERS_PER_PRODUCER; o++) {
+							long orderId = (long) producer * ORDERS_PER_PRODUCER + o;
+							List<LocationIngestBuffer.LocationPoint> batch = batch(orderId, b);
+							// Backpressure: o cliente aguarda e reenvia o mesmo lote
+							while (!buffer.offer(batch)) {
+								LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+							}
+						}
+					}
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		buffer.close();
+		producers.shutdown();
+
+		assertEquals(totalPoints, buffer.getAccepted());
+		assertEquals(totalPoints, persisted.get());
+		assertEquals(0, buffer.getQueueSize());
+		assertEquals(0, buffer.getDropped());
+		for (long orderId = 0; orderId < (long) PRODUCERS * ORDERS_PER_PRODUCER; orderId++) {
+			LocationIngestBuffer.LocationPoint latest = buffer.latest(orderId);
+			assertNotNull(latest);
+			assertEquals(recordedAt(BATCHES_PER_ORDER - 1, POINTS_PER_BATCH - 1), latest.recordedAt());
+		}
+	}
+
+	@Test
+	void rejectsWholeBatchWhenQueueIsFull() {
+		CountDownLatch release = new CountDownLatch(1);
+		LocationIngestBuffer buffer = new LocationIngestBuffer(100, 100, batch -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		assertTrue(buffer.offer(batch(1L, 0)));
+		assertTrue(buffer.offer(batch(2L, 0)));
+		// 100 pontos ocupam a fila; o terceiro lote não cabe e não altera a última posição
+		assertFalse(buffer.offer(batch(3L, 0)));
+		assertNull(buffer.latest(3L));
+		assertEquals(POINTS_PER_BATCH, buffer.getRejected());
+
+		release.countDown();
+		buffer.close();
+		assertEquals(2L * POINTS_PER_BATCH, buffer.getWritten());
+	}
+
+	private static List<LocationIngestBuffer.LocationPoint> batch(long orderId, int batchIndex) {
+		List<LocationIngestBuffer.LocationPoint> points = new ArrayList<>(POINTS_PER_BATCH);
+		Instant receivedAt = Instant.now();
+		for (int i = 0; i < POINTS_PER_BATCH; i++) {
+			points.add(new LocationIngestBuffer.LocationPoint(orderId, orderId % 1_000, -19.92 + i * 0.0001,
+					-43.94 + i * 0.0001, recordedAt(batchIndex, i), receivedAt));
+		}
+		return points;
+	}
+
+	private static Instant recordedAt(int batchIndex, int pointIndex) {
+		return Instant.ofEpochMilli(BASE_TIME + (batchIndex * (long) POINTS_PER_BATCH + pointIndex) * 1_000);
+	}
+}
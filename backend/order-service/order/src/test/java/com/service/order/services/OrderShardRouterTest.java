@@ -0,0 +1,194 @@
+package com.service.order.services;
+
+import com.service.order.config.ShardingProperties;
+import com.service.order.utils.ShardContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decisões de roteamento do OrderShardRouter com o order_shard_buckets simulado em memória
+ * (três shards; buckets sem linha ficam no shard 0).
+ */
+class OrderShardRouterTest {
+
+	private FakeShardMap shardMap;
+	private OrderShardRouter router;
+
+	@BeforeEach
+	void setUp() {
+		ShardingProperties properties = new ShardingProperties();
+		properties.setEnabled(true);
+		properties.setShards(List.of(new ShardingProperties.Shard(), new ShardingProperties.Shard()));
+		properties.setFanOutThreads(3);
+		shardMap = new FakeShardMap();
+		router = new OrderShardRouter(properties, shardMap, new NoOpTransactionManager());
+	}
+
+	@AfterEach
+	void tearDown() {
+		router.shutdown();
+	}
+
+	@Test
+	void lockedBucketRejectsWritesWith503() {
+		shardMap.put(5, 1, OrderShardRouter.STATE_LOCKED);
+		router.refresh();
+
+		ResponseStatusException error = assertThrows(ResponseStatusException.class,
+				() -> router.writeOnShardOf(5L, () -> fail("escrita não deveria rodar")));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+		assertFalse(router.isWritable(5L));
+	}
+
+	@Test
+	void bucketLockedAfterLastRefreshIsRejectedByTheFence() {
+		shardMap.put(5, 1, OrderShardRouter.STATE_ACTIVE);
+		router.refresh();
+		shardMap.put(5, 1, OrderShardRouter.STATE_LOCKED);
+
+		ResponseStatusException error = assertThrows(ResponseStatusException.class,
+				() -> router.writeOnShardOf(5L, () -> fail("escrita não deveria rodar")));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+	}
+
+	@Test
+	void writeGoesToShardOfFenceRowOverStaleCachedMap() {
+		shardMap.put(7, 1, OrderShardRouter.STATE_ACTIVE);
+		router.refresh();
+		// O rebalanceador moveu o bucket depois da última releitura
+		shardMap.put(7, 2, OrderShardRouter.STATE_ACTIVE);
+
+		Integer shard = router.writeOnShardOf(7L, ShardContext::current);
+
+		assertEquals(1, router.shardOf(7L));
+		assertEquals(2, shard);
+	}
+
+	@Test
+	void fanOutReadsKeepOnlyTheOwningShardCopy() {
+		shardMap.put(3, 1, OrderShardRouter.STATE_ACTIVE);
+		router.refresh();
+
+		List<Boolean> owns = router.onAllShards(() -> router.ownsHere(3L));
+
+		assertEquals(List.of(false, true, false), owns);
+	}
+
+	@Test
+	void shardWriteFilterSkipsLockedAndMovedBuckets() {
+		shardMap.put(1, 1, OrderShardRouter.STATE_ACTIVE);
+		shardMap.put(2, 1, OrderShardRouter.STATE_LOCKED);
+		shardMap.put(3, 2, OrderShardRouter.STATE_ACTIVE);
+
+		List<Object> result = router.writeOnShard(1, writable -> List.of(
+				ShardContext.current(), writable.test(1L), writable.test(2L), writable.test(3L)));
+
+		assertEquals(List.of(1, true, false, false), result);
+	}
+
+	@Test
+	void shardWriteFilterReflectsTheFenceNotTheCachedMap() {
+		shardMap.put(4, 1, OrderShardRouter.STATE_ACTIVE);
+		router.refresh();
+		shardMap.put(4, 1, OrderShardRouter.STATE_LOCKED);
+
+		Predicate<Long> writable = router.writeOnShard(1, filter -> filter);
+
+		assertTrue(router.isWritable(4L));
+		assertFalse(writable.test(4L));
+	}
+
+	private static <T> T fail(String message) {
+		throw new AssertionError(message);
+	}
+
+	/**
+	 * order_shard_buckets em memória, respondendo às consultas que o roteador faz.
+	 */
+	private static final class FakeShardMap extends JdbcTemplate {
+
+		private final Map<Integer, Map<String, Object>> rows = new HashMap<>();
+
+		void put(int bucket, int shard, String state) {
+			rows.put(bucket, Map.of("bucket", bucket, "shard", shard, "state", state));
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler) {
+			for (Map<String, Object> row : rows.values()) {
+				process(handler, row);
+			}
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler handler, Object... args) {
+			int shard = (Integer) args[0];
+			List<Map<String, Object>> matching = new ArrayList<>();
+			rows.values().stream().filter(row -> row.get("shard").equals(shard)).forEach(matching::add);
+			for (Map<String, Object> row : matching) {
+				process(handler, row);
+			}
+		}
+
+		@Override
+		public Map<String, Object> queryForMap(String sql, Object... args) {
+			int bucket = (Integer) args[0];
+			return rows.getOrDefault(bucket, Map.of("bucket", bucket, "shard", 0, "state", OrderShardRouter.STATE_ACTIVE));
+		}
+
+		private static void process(RowCallbackHandler handler, Map<String, Object> row) {
+			ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+					new Class<?>[]{ResultSet.class}, (proxy, method, methodArgs) -> switch (method.getName()) {
+						case "getInt" -> row.get((String) methodArgs[0]);
+						case "getString" -> String.valueOf(row.get((String) methodArgs[0]));
+						default -> throw new UnsupportedOperationException(method.getName());
+					});
+			try {
+				handler.processRow(resultSet);
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+		}
+	}
+}
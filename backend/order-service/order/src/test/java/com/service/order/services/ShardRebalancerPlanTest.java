@@ -0,0 +1,81 @@
+package com.service.order.services;
+
+import com.service.order.utils.ShardKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRebalancerPlanTest {
+
+	@Test
+	void spreadsBucketsOfSingleShardEvenly() {
+		int[] buckets = new int[ShardKeys.BUCKETS];
+
+		List<ShardRebalancer.Move> moves = ShardRebalancer.plan(buckets, 3);
+
+		// 1024 = 342 + 341 + 341; o shard 0 fica com a sobra por já ter mais buckets
+		assertEquals(ShardKeys.BUCKETS - 342, moves.size());
+		assertTrue(moves.stream().allMatch(move -> move.from() == 0));
+		assertEquals(List.of(342, 341, 341), counts(apply(buckets, moves), 3));
+	}
+
+	@Test
+	void movesOnlyTheShareOfNewShard() {
+		int[] buckets = new int[ShardKeys.BUCKETS];
+		buckets = apply(buckets, ShardRebalancer.plan(buckets, 3));
+
+		List<ShardRebalancer.Move> moves = ShardRebalancer.plan(buckets, 4);
+
+		assertEquals(ShardKeys.BUCKETS / 4, moves.size());
+		assertTrue(moves.stream().allMatch(move -> move.to() == 3));
+		assertEquals(List.of(256, 256, 256, 256), counts(apply(buckets, moves), 4));
+	}
+
+	@Test
+	void balancedMapNeedsNoMoves() {
+		int[] buckets = new int[ShardKeys.BUCKETS];
+		for (int bucket = 0; bucket < buckets.length; bucket++) {
+			buckets[bucket] = bucket % 2;
+		}
+
+		assertTrue(ShardRebalancer.plan(buckets, 2).isEmpty());
+	}
+
+	@Test
+	void rejectsBucketsOnRemovedShard() {
+		int[] buckets = new int[ShardKeys.BUCKETS];
+		buckets[10] = 2;
+
+		assertThrows(IllegalStateException.class, () -> ShardRebalancer.plan(buckets, 2));
+	}
+
+	@Test
+	void orderIdKeepsCustomerBucket() {
+		for (long customerId = 1; customerId <= 10_000; customerId++) {
+			int bucket = ShardKeys.bucketForCustomer(customerId);
+			assertEquals(bucket, ShardKeys.bucketOf(ShardKeys.orderId(customerId * ShardKeys.MAX_SHARDS + 3, bucket)));
+		}
+	}
+
+	private static int[] apply(int[] buckets, List<ShardRebalancer.Move> moves) {
+		int[] result = Arrays.copyOf(buckets, buckets.length);
+		for (ShardRebalancer.Move move : moves) {
+			assertEquals(move.from(), result[move.bucket()]);
+			result[move.bucket()] = move.to();
+		}
+		return result;
+	}
+
+	private static List<Integer> counts(int[] buckets, int shardCount) {
+		int[] counts = new int[shardCount];
+		for (int shard : buckets) {
+			counts[shard]++;
+		}
+		return Arrays.stream(counts).boxed().toList();
+	}
+}
@@ -0,0 +1,62 @@
+package com.service.order.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentHashTest {
+
+	private static final int PART_SIZE = 1000;
+
+	@Test
+	void matchesSingleUploadEtag() throws Exception {
+		ContentHash hash = ContentHash.of(new ByteArrayInputStream("abc".getBytes()), PART_SIZE);
+
+		assertEquals("900150983cd24fb0d6963f7d28e17f72", hash.getMd5());
+		assertEquals(3, hash.getSize());
+		assertTrue(hash.matchesEtag("\"900150983CD24FB0D6963F7D28E17F72\""));
+		assertTrue(hash.matchesEtag("W/\"900150983cd24fb0d6963f7d28e17f72\""));
+		assertFalse(hash.matchesEtag("\"00000000000000000000000000000000\""));
+		assertFalse(hash.matchesEtag(null));
+	}
+
+	@Test
+	void matchesMultipartEtagAcrossPartBoundaries() throws Exception {
+		byte[] content = new byte[PART_SIZE * 2 + 123];
+		new Random(42).nextBytes(content);
+
+		MessageDigest parts = MessageDigest.getInstance("MD5");
+		parts.update(md5(Arrays.copyOfRange(content, 0, PART_SIZE)));
+		parts.update(md5(Arrays.copyOfRange(content, PART_SIZE, PART_SIZE * 2)));
+		parts.update(md5(Arrays.copyOfRange(content, PART_SIZE * 2, content.length)));
+		String expected = HexFormat.of().formatHex(parts.digest()) + "-3";
+
+		ContentHash hash = ContentHash.of(new ByteArrayInputStream(content), PART_SIZE);
+
+		assertEquals(expected, hash.getMultipartEtag());
+		assertEquals(HexFormat.of().formatHex(md5(content)), hash.getMd5());
+		assertTrue(hash.matchesEtag("\"" + expected + "\""));
+	}
+
+	@Test
+	void exactMultipleOfPartSizeHasNoEmptyTrailingPart() throws Exception {
+		byte[] content = new byte[PART_SIZE * 2];
+		new Random(7).nextBytes(content);
+
+		ContentHash hash = ContentHash.of(new ByteArrayInputStream(content), PART_SIZE);
+
+		assertTrue(hash.getMultipartEtag().endsWith("-2"));
+	}
+
+	private static byte[] md5(byte[] bytes) throws Exception {
+		return MessageDigest.getInstance("MD5").digest(bytes);
+	}
+}
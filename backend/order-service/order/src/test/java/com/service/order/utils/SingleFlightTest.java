@@ -0,0 +1,115 @@
+package com.service.order.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentCallsForSameKeyShareOneLoad() throws Exception {
+		SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+				loads.incrementAndGet();
+				await(release);
+				return "pedido-1";
+			})));
+		}
+		// Dá tempo para todas as threads chegarem enquanto a primeira carga está bloqueada
+		while (singleFlight.getLeaders() + singleFlight.getCollapsed() < 16) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("pedido-1", result.get(5, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		assertEquals(1, loads.get());
+		assertEquals(15, singleFlight.getCollapsed());
+		assertEquals(0, singleFlight.inFlightCount());
+		assertTrue(singleFlight.collapseRatio() > 0.9);
+	}
+
+	@Test
+	void errorsAreSharedAndNotRemembered() throws Exception {
+		SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+			await(release);
+			throw new IllegalStateException("banco indisponível");
+		}));
+		while (singleFlight.inFlightCount() == 0) {
+			Thread.sleep(5);
+		}
+		Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "não deveria executar"));
+		while (singleFlight.getCollapsed() == 0) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+		Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+		assertInstanceOf(IllegalStateException.class, followerError.getCause());
+		executor.shutdown();
+
+		// A falha não fica guardada: a próxima chamada executa o loader normalmente
+		assertEquals("ok", singleFlight.execute(1L, () -> "ok"));
+	}
+
+	@Test
+	void forgottenKeyStartsANewLoad() throws Exception {
+		SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		Future<String> stale = executor.submit(() -> singleFlight.execute(1L, () -> {
+			await(release);
+			return "antes da escrita";
+		}));
+		while (singleFlight.inFlightCount() == 0) {
+			Thread.sleep(5);
+		}
+
+		// Depois de uma escrita, quem chega não se junta à leitura antiga
+		singleFlight.forget(1L);
+		assertEquals("depois da escrita", singleFlight.execute(1L, () -> "depois da escrita"));
+		assertEquals(2, singleFlight.getLeaders());
+
+		release.countDown();
+		assertEquals("antes da escrita", stale.get(5, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,5 @@
+-- Executado uma única vez pela imagem do Postgres, na criação do volume (docker-entrypoint-initdb.d),
+-- com o superusuário. O order-service roda com um usuário comum e não cria extensões.
+
+-- unaccent: busca textual de pedidos sem acentos (order-service, db/order-search.sql)
+CREATE EXTENSION IF NOT EXISTS unaccent;